@@ -23,8 +23,13 @@
  */
 package com.synopsys.integration.blackduck.api.view;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.synopsys.integration.blackduck.api.core.HubView;
 import com.synopsys.integration.blackduck.api.core.ResourceLink;
@@ -34,6 +39,8 @@ import com.synopsys.integration.log.IntLogger;
 
 public class MetaHandler {
     private final IntLogger logger;
+    // only the links of the view that was looked up last are indexed, so the index never outlives its use and there is no state shared between handlers
+    private final AtomicReference<LinkIndex> lastLinkIndex = new AtomicReference<>();
 
     public MetaHandler(final IntLogger logger) {
         this.logger = logger;
@@ -44,35 +51,19 @@ public class MetaHandler {
         if (meta == null) {
             return false;
         }
-        final List<ResourceLink> links = meta.links;
-        if (links == null) {
+        if (meta.links == null) {
             return false;
         }
-        for (final ResourceLink link : links) {
-            if (link.rel.equals(linkKey)) {
-                return true;
-            }
-        }
-        return false;
+        return !getLinkHrefs(meta, linkKey).isEmpty();
     }
 
     public String getFirstLink(final HubView view, final String linkKey) throws HubIntegrationException {
-        final List<ResourceLink> links = getLinkViews(view);
-        final StringBuilder linksAvailable = new StringBuilder();
-        linksAvailable.append("Could not find the link '" + linkKey + "', these are the available links : ");
-        int i = 0;
-        for (final ResourceLink link : links) {
-            if (link.rel.equals(linkKey)) {
-                return link.href;
-            }
-            if (i > 0) {
-                linksAvailable.append(", ");
-            }
-            linksAvailable.append("'" + link.rel + "'");
-            i++;
+        getLinkViews(view);
+        final List<String> hrefs = getLinkHrefs(view._meta, linkKey);
+        if (hrefs.isEmpty()) {
+            throw new HubIntegrationException(createMissingLinkMessage(view, linkKey));
         }
-        linksAvailable.append(". For View : " + view._meta.href);
-        throw new HubIntegrationException(linksAvailable.toString());
+        return hrefs.get(0);
     }
 
     public String getFirstLinkSafely(final HubView view, final String linkKey) {
@@ -86,26 +77,12 @@ public class MetaHandler {
     }
 
     public List<String> getLinks(final HubView view, final String linkKey) throws HubIntegrationException {
-        final List<ResourceLink> links = getLinkViews(view);
-        final List<String> linkHrefs = new ArrayList<>();
-        final StringBuilder linksAvailable = new StringBuilder();
-        linksAvailable.append("Could not find the link '" + linkKey + "', these are the available links : ");
-        int i = 0;
-        for (final ResourceLink link : links) {
-            if (link.rel.equals(linkKey)) {
-                linkHrefs.add(link.href);
-            }
-            if (i > 0) {
-                linksAvailable.append(", ");
-            }
-            linksAvailable.append("'" + link.rel + "'");
-            i++;
+        getLinkViews(view);
+        final List<String> hrefs = getLinkHrefs(view._meta, linkKey);
+        if (hrefs.isEmpty()) {
+            throw new HubIntegrationException(createMissingLinkMessage(view, linkKey));
         }
-        if (!linkHrefs.isEmpty()) {
-            return linkHrefs;
-        }
-        linksAvailable.append(". For View : " + view._meta.href);
-        throw new HubIntegrationException(linksAvailable.toString());
+        return new ArrayList<>(hrefs);
     }
 
     public ResourceMetadata getMetaView(final HubView view) throws HubIntegrationException {
@@ -142,4 +119,79 @@ public class MetaHandler {
         return href;
     }
 
+    /**
+     * The first lookup on a view just scans its links, since most views are only asked for a link once. A second lookup on the same view builds an index of its links by rel, which is used until
+     * another view is looked up or the links list is replaced or grows or shrinks.
+     */
+    private List<String> getLinkHrefs(final ResourceMetadata meta, final String linkKey) {
+        final LinkIndex linkIndex = lastLinkIndex.get();
+        if (linkIndex == null || !linkIndex.isCurrent(meta)) {
+            lastLinkIndex.set(new LinkIndex(meta, null));
+            return scanLinkHrefs(meta.links, linkKey);
+        }
+        if (linkIndex.hrefsByRel != null) {
+            return linkIndex.getHrefs(linkKey);
+        }
+        final LinkIndex builtIndex = new LinkIndex(meta, indexLinks(meta.links));
+        lastLinkIndex.set(builtIndex);
+        return builtIndex.getHrefs(linkKey);
+    }
+
+    private List<String> scanLinkHrefs(final List<ResourceLink> links, final String linkKey) {
+        final List<String> hrefs = new ArrayList<>(1);
+        for (final ResourceLink link : links) {
+            if (link.rel.equals(linkKey)) {
+                hrefs.add(link.href);
+            }
+        }
+        return hrefs;
+    }
+
+    private Map<String, List<String>> indexLinks(final List<ResourceLink> links) {
+        final Map<String, List<String>> hrefsByRel = new HashMap<>();
+        for (final ResourceLink link : links) {
+            hrefsByRel.computeIfAbsent(link.rel, rel -> new ArrayList<>(1)).add(link.href);
+        }
+        return hrefsByRel;
+    }
+
+    private String createMissingLinkMessage(final HubView view, final String linkKey) {
+        final StringBuilder linksAvailable = new StringBuilder();
+        linksAvailable.append("Could not find the link '" + linkKey + "', these are the available links : ");
+        int i = 0;
+        for (final ResourceLink link : view._meta.links) {
+            if (i > 0) {
+                linksAvailable.append(", ");
+            }
+            linksAvailable.append("'" + link.rel + "'");
+            i++;
+        }
+        linksAvailable.append(". For View : " + view._meta.href);
+        return linksAvailable.toString();
+    }
+
+    private static class LinkIndex {
+        // weakly referenced, so the last view looked up can still be collected
+        private final WeakReference<ResourceMetadata> meta;
+        private final WeakReference<List<ResourceLink>> links;
+        private final int linkCount;
+        private final Map<String, List<String>> hrefsByRel;
+
+        public LinkIndex(final ResourceMetadata meta, final Map<String, List<String>> hrefsByRel) {
+            this.meta = new WeakReference<>(meta);
+            this.links = new WeakReference<>(meta.links);
+            this.linkCount = meta.links.size();
+            this.hrefsByRel = hrefsByRel;
+        }
+
+        public boolean isCurrent(final ResourceMetadata currentMeta) {
+            return meta.get() == currentMeta && links.get() == currentMeta.links && linkCount == currentMeta.links.size();
+        }
+
+        public List<String> getHrefs(final String linkKey) {
+            final List<String> hrefs = hrefsByRel.get(linkKey);
+            return hrefs == null ? Collections.emptyList() : hrefs;
+        }
+    }
+
 }
@@ -0,0 +1,148 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.codelocation;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.jayway.jsonpath.JsonPath;
+import com.synopsys.integration.blackduck.api.generated.view.CodeLocationView;
+import com.synopsys.integration.blackduck.api.generated.view.NotificationView;
+
+/**
+ * Tracks which of a set of code locations have been added to the BOM, from the code locations found by name and the VERSION_BOM_CODE_LOCATION_BOM_COMPUTED notifications seen so far. The
+ * notification start date moves forward to the newest notification seen, so each poll only needs the notifications that arrived since the previous one.
+ */
+public class CodeLocationCompletionTracker {
+    private final Set<String> codeLocationNames;
+    private final Date notificationEndDate;
+    private final Map<String, String> codeLocationUrlsByName = new HashMap<>();
+    private final Set<String> bomComputedCodeLocationUrls = new HashSet<>();
+    private Date notificationStartDate;
+
+    public CodeLocationCompletionTracker(final Set<String> codeLocationNames, final Date notificationStartDate, final Date notificationEndDate) {
+        this.codeLocationNames = new HashSet<>(codeLocationNames);
+        this.notificationStartDate = notificationStartDate;
+        this.notificationEndDate = notificationEndDate;
+    }
+
+    public Set<String> getUnresolvedCodeLocationNames() {
+        if (codeLocationUrlsByName.size() == codeLocationNames.size()) {
+            return Collections.emptySet();
+        }
+        return codeLocationNames
+                       .stream()
+                       .filter(codeLocationName -> !codeLocationUrlsByName.containsKey(codeLocationName))
+                       .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return true if any of the code locations this tracker waits for were newly found.
+     */
+    public boolean addCodeLocations(final Map<String, CodeLocationView> codeLocationsByName) {
+        final Map<String, String> codeLocationUrlsByName = new HashMap<>();
+        for (final Map.Entry<String, CodeLocationView> entry : codeLocationsByName.entrySet()) {
+            final CodeLocationView codeLocationView = entry.getValue();
+            if (null != codeLocationView && null != codeLocationView._meta && null != codeLocationView._meta.href) {
+                codeLocationUrlsByName.put(entry.getKey(), codeLocationView._meta.href);
+            }
+        }
+        return addCodeLocationUrls(codeLocationUrlsByName);
+    }
+
+    /**
+     * @return true if any of the code locations this tracker waits for were newly found.
+     */
+    public boolean addCodeLocationUrls(final Map<String, String> codeLocationUrlsByName) {
+        boolean progress = false;
+        for (final String codeLocationName : getUnresolvedCodeLocationNames()) {
+            final String codeLocationUrl = codeLocationUrlsByName.get(codeLocationName);
+            if (null != codeLocationUrl) {
+                this.codeLocationUrlsByName.put(codeLocationName, codeLocationUrl);
+                progress = true;
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * The notifications may be a superset of what this tracker needs, as long as they cover the range from getNotificationStartDate to getNotificationEndDate. Notifications from before that range are
+     * ignored, so an earlier BOM computation of the same code location is not mistaken for this one.
+     * @return true if the BOM of any code location was newly computed.
+     */
+    public boolean addNotifications(final List<NotificationView> notifications) {
+        final Date rangeStartDate = notificationStartDate;
+        boolean progress = false;
+        for (final NotificationView notificationView : notifications) {
+            if (null != notificationView.createdAt && notificationView.createdAt.before(rangeStartDate)) {
+                continue;
+            }
+            // the urls of code locations that are not found by name yet are kept as well, as their notifications will not be requested again
+            final Optional<String> codeLocationUrl = getCodeLocationUrl(notificationView);
+            if (codeLocationUrl.isPresent() && bomComputedCodeLocationUrls.add(codeLocationUrl.get())) {
+                progress = true;
+            }
+            if (null != notificationView.createdAt && notificationView.createdAt.after(notificationStartDate)) {
+                notificationStartDate = notificationView.createdAt;
+            }
+        }
+        return progress;
+    }
+
+    public boolean isComplete() {
+        return codeLocationUrlsByName.size() == codeLocationNames.size() && bomComputedCodeLocationUrls.containsAll(codeLocationUrlsByName.values());
+    }
+
+    public int getCompletedCount() {
+        return (int) codeLocationUrlsByName.values().stream().filter(bomComputedCodeLocationUrls::contains).count();
+    }
+
+    public int getCodeLocationCount() {
+        return codeLocationNames.size();
+    }
+
+    public Date getNotificationStartDate() {
+        return notificationStartDate;
+    }
+
+    public Date getNotificationEndDate() {
+        return notificationEndDate;
+    }
+
+    private Optional<String> getCodeLocationUrl(final NotificationView notificationView) {
+        if (null == notificationView.json) {
+            return Optional.empty();
+        }
+        final String codeLocationUrl = JsonPath.read(notificationView.json, "$.content.codeLocation");
+        return Optional.ofNullable(codeLocationUrl);
+    }
+
+}
@@ -26,20 +26,17 @@ package com.synopsys.integration.blackduck.codelocation;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
-import com.jayway.jsonpath.JsonPath;
 import com.synopsys.integration.blackduck.api.generated.enumeration.NotificationType;
-import com.synopsys.integration.blackduck.api.generated.view.CodeLocationView;
 import com.synopsys.integration.blackduck.api.generated.view.NotificationView;
-import com.synopsys.integration.blackduck.exception.DoesNotExistException;
 import com.synopsys.integration.blackduck.exception.HubTimeoutExceededException;
 import com.synopsys.integration.blackduck.service.CodeLocationService;
 import com.synopsys.integration.blackduck.service.DataService;
@@ -50,6 +47,11 @@ import com.synopsys.integration.exception.IntegrationException;
 import com.synopsys.integration.log.IntLogger;
 
 public class CodeLocationCreationService extends DataService {
+    public static final long INITIAL_WAIT_DELAY = 1000L;
+    public static final long MAX_WAIT_DELAY = 10000L;
+
+    private static final List<String> BOM_COMPUTED_NOTIFICATION_TYPES = Collections.singletonList(NotificationType.VERSION_BOM_CODE_LOCATION_BOM_COMPUTED.name());
+
     private final CodeLocationService codeLocationService;
     private final NotificationService notificationService;
 
@@ -95,58 +97,66 @@ public class CodeLocationCreationService extends DataService {
     }
 
     private void assertCodeLocationsAddedToBom(final NotificationTaskRange notificationTaskRange, final Set<String> codeLocationNames, final long timeoutInSeconds) throws IntegrationException, InterruptedException {
-        boolean allCompleted = false;
+        final long timeoutInMilliseconds = timeoutInSeconds * 1000;
+        final CodeLocationCompletionTracker tracker = new CodeLocationCompletionTracker(codeLocationNames, notificationTaskRange.getStartDate(), notificationTaskRange.getEndDate());
+        int attemptsWithoutProgress = 0;
         int attemptCount = 1;
-        while (!allCompleted && System.currentTimeMillis() - notificationTaskRange.getTaskStartTime() <= timeoutInSeconds * 1000) {
-            final List<CodeLocationView> codeLocations = new ArrayList<>();
-            for (final String codeLocationName : codeLocationNames) {
-                try {
-                    final CodeLocationView codeLocationView = codeLocationService.getCodeLocationByName(codeLocationName);
-                    codeLocations.add(codeLocationView);
-                } catch (final DoesNotExistException ignoreBecauseItIsExpected) {
-                    // ignored - the code locations may not exist yet, hence the searching and timeout
-                }
+        while (true) {
+            final boolean progress = updateCompletionTrackers(Collections.singletonList(tracker));
+            if (tracker.isComplete()) {
+                logger.info("All code locations have been added to the BOM.");
+                return;
             }
 
-            if (codeLocations.size() == codeLocationNames.size()) {
-                logger.debug("All code locations have been found, now looking for notifications.");
-                final Set<String> codeLocationUrlsToFind = codeLocations
-                                                                   .stream()
-                                                                   .map(codeLocation -> codeLocation._meta.href)
-                                                                   .collect(Collectors.toSet());
-                final Set<String> codeLocationUrls = new HashSet<>();
-                final List<NotificationView> notifications = notificationService
-                                                                     .getFilteredNotifications(notificationTaskRange.getStartDate(), notificationTaskRange.getEndDate(),
-                                                                             Arrays.asList(NotificationType.VERSION_BOM_CODE_LOCATION_BOM_COMPUTED.name()));
-                logger.debug(String.format("There were %d notifications found.", notifications.size()));
-
-                for (final NotificationView notificationView : notifications) {
-                    final Optional<String> codeLocationUrl = getCodeLocationUrl(notificationView);
-                    if (codeLocationUrl.isPresent()) {
-                        codeLocationUrls.add(codeLocationUrl.get());
-                    }
-                }
-
-                if (codeLocationUrls.containsAll(codeLocationUrlsToFind)) {
-                    allCompleted = true;
-                } else {
-                    attemptCount++;
-                    logger.info(String.format("All code locations have not been added to the BOM yet, waiting another 5 seconds (try #%d)...", attemptCount));
-                    Thread.sleep(5000);
-                }
+            final long remainingTime = timeoutInMilliseconds - (System.currentTimeMillis() - notificationTaskRange.getTaskStartTime());
+            if (remainingTime <= 0) {
+                throw new HubTimeoutExceededException(String.format("It was not possible to verify the code locations were added to the BOM within the timeout (%ds) provided.", timeoutInSeconds));
+            }
+
+            attemptsWithoutProgress = progress ? 0 : attemptsWithoutProgress + 1;
+            final long delay = Math.min(getWaitDelay(attemptsWithoutProgress), remainingTime);
+            attemptCount++;
+            logger.info(String.format("%d of %d code locations have been added to the BOM, waiting another %dms (try #%d)...", tracker.getCompletedCount(), tracker.getCodeLocationCount(), delay, attemptCount));
+            Thread.sleep(delay);
+        }
+    }
+
+    /**
+     * Looks up the code locations that were not found yet in one batch, and then requests only the notifications that arrived since the previous update. Any number of trackers share the same two
+     * requests.
+     * @return true if the update found anything new for any of the trackers.
+     */
+    boolean updateCompletionTrackers(final Collection<CodeLocationCompletionTracker> trackers) throws IntegrationException {
+        if (trackers.isEmpty()) {
+            return false;
+        }
+
+        boolean progress = false;
+        final Set<String> unresolvedCodeLocationNames = new HashSet<>();
+        trackers.forEach(tracker -> unresolvedCodeLocationNames.addAll(tracker.getUnresolvedCodeLocationNames()));
+        if (!unresolvedCodeLocationNames.isEmpty()) {
+            final Map<String, String> codeLocationUrlsByName = codeLocationService.getCodeLocationUrlsByNames(unresolvedCodeLocationNames);
+            for (final CodeLocationCompletionTracker tracker : trackers) {
+                progress |= tracker.addCodeLocationUrls(codeLocationUrlsByName);
             }
         }
 
-        if (!allCompleted) {
-            throw new HubTimeoutExceededException(String.format("It was not possible to verify the code locations were added to the BOM within the timeout (%ds) provided.", timeoutInSeconds));
-        } else {
-            logger.info("All code locations have been added to the BOM.");
+        final Date startDate = trackers.stream().map(CodeLocationCompletionTracker::getNotificationStartDate).min(Comparator.naturalOrder()).get();
+        final Date endDate = trackers.stream().map(CodeLocationCompletionTracker::getNotificationEndDate).max(Comparator.naturalOrder()).get();
+        final List<NotificationView> notifications = notificationService.getFilteredNotifications(startDate, endDate, BOM_COMPUTED_NOTIFICATION_TYPES);
+        logger.debug(String.format("There were %d new notifications found.", notifications.size()));
+        for (final CodeLocationCompletionTracker tracker : trackers) {
+            progress |= tracker.addNotifications(notifications);
         }
+        return progress;
     }
 
-    private Optional<String> getCodeLocationUrl(final NotificationView notificationView) {
-        final String codeLocationUrl = JsonPath.read(notificationView.json, "$.content.codeLocation");
-        return Optional.ofNullable(codeLocationUrl);
+    /**
+     * The wait starts short and doubles up to MAX_WAIT_DELAY for as long as nothing changes, and is short again as soon as more code locations are found or added to the BOM.
+     */
+    static long getWaitDelay(final int attemptsWithoutProgress) {
+        final double delay = INITIAL_WAIT_DELAY * Math.pow(2, Math.min(attemptsWithoutProgress, 16));
+        return (long) Math.min(MAX_WAIT_DELAY, delay);
     }
 
 }
@@ -0,0 +1,203 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.codelocation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.synopsys.integration.blackduck.exception.HubTimeoutExceededException;
+import com.synopsys.integration.blackduck.service.model.NotificationTaskRange;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.log.IntLogger;
+
+/**
+ * Waits for the code locations of any number of requests without a thread per request. All outstanding waits are checked together on the scheduler, with one code location lookup and one
+ * notification request per tick, so many concurrent waits cost about the same as one. A tick that fails to check the code locations is logged and retried after the backoff, so a wait
+ * only fails once its own timeout has passed. A single thread is enough for the scheduler, and it is up to the user of the coordinator to shut it down.
+ */
+public class CodeLocationWaitCoordinator {
+    private final IntLogger logger;
+    private final CodeLocationCreationService codeLocationCreationService;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private final List<CodeLocationWait<?>> waits = new ArrayList<>();
+    private ScheduledFuture<?> nextTick;
+    private int attemptsWithoutProgress = 0;
+    private boolean tickInProgress = false;
+    private boolean waitAddedDuringTick = false;
+
+    public CodeLocationWaitCoordinator(final IntLogger logger, final CodeLocationCreationService codeLocationCreationService, final ScheduledExecutorService scheduler) {
+        this.logger = logger;
+        this.codeLocationCreationService = codeLocationCreationService;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Creates the code locations on the calling thread, and then waits for them on the scheduler.
+     * @return A future of the output of the request, completed once all of its successful code locations have been added to the BOM. Cancelling it stops waiting for them.
+     */
+    public <T extends CodeLocationBatchOutput> CompletableFuture<T> createCodeLocationsAndWait(final CodeLocationCreationRequest<T> codeLocationCreationRequest, final long timeoutInSeconds)
+            throws IntegrationException {
+        final CodeLocationCreationData<T> codeLocationCreationData = codeLocationCreationService.createCodeLocations(codeLocationCreationRequest);
+        return waitForCodeLocations(codeLocationCreationData, timeoutInSeconds);
+    }
+
+    public <T extends CodeLocationBatchOutput> CompletableFuture<T> waitForCodeLocations(final CodeLocationCreationData<T> codeLocationCreationData, final long timeoutInSeconds) {
+        return waitForCodeLocations(codeLocationCreationData.getNotificationTaskRange(), codeLocationCreationData.getSuccessfulCodeLocationNames(), timeoutInSeconds, codeLocationCreationData.getOutput());
+    }
+
+    public CompletableFuture<Void> waitForCodeLocations(final NotificationTaskRange notificationTaskRange, final Set<String> codeLocationNames, final long timeoutInSeconds) {
+        return waitForCodeLocations(notificationTaskRange, codeLocationNames, timeoutInSeconds, null);
+    }
+
+    /**
+     * @return The number of waits that have not completed yet.
+     */
+    public int getOutstandingWaitCount() {
+        synchronized (lock) {
+            return waits.size();
+        }
+    }
+
+    private <T> CompletableFuture<T> waitForCodeLocations(final NotificationTaskRange notificationTaskRange, final Set<String> codeLocationNames, final long timeoutInSeconds, final T output) {
+        final CodeLocationCompletionTracker tracker = new CodeLocationCompletionTracker(codeLocationNames, notificationTaskRange.getStartDate(), notificationTaskRange.getEndDate());
+        final long deadline = notificationTaskRange.getTaskStartTime() + timeoutInSeconds * 1000;
+        final CodeLocationWait<T> wait = new CodeLocationWait<>(tracker, deadline, timeoutInSeconds, output);
+        synchronized (lock) {
+            waits.add(wait);
+            // a new wait is checked soon, even when the others have backed off
+            attemptsWithoutProgress = 0;
+            if (tickInProgress) {
+                // the running tick schedules the next one when it is done
+                waitAddedDuringTick = true;
+            } else if (null == nextTick || nextTick.getDelay(TimeUnit.MILLISECONDS) > CodeLocationCreationService.INITIAL_WAIT_DELAY) {
+                scheduleTick(0);
+            }
+        }
+        return wait.future;
+    }
+
+    /**
+     * The requests are made, and the futures completed, outside of the lock, so that registering a new wait never has to wait for the Hub and a callback of a completed future can register
+     * a new wait right away. Only one tick runs at a time, so the trackers are never updated concurrently.
+     */
+    private void tick() {
+        final List<CodeLocationWait<?>> tickWaits;
+        synchronized (lock) {
+            nextTick = null;
+            waits.removeIf(wait -> wait.future.isDone());
+            if (waits.isEmpty()) {
+                return;
+            }
+            tickWaits = new ArrayList<>(waits);
+            tickInProgress = true;
+            waitAddedDuringTick = false;
+        }
+
+        boolean progress = false;
+        Exception checkFailure = null;
+        try {
+            final List<CodeLocationCompletionTracker> trackers = tickWaits.stream().map(wait -> wait.tracker).collect(Collectors.toList());
+            progress = codeLocationCreationService.updateCompletionTrackers(trackers);
+        } catch (final Exception e) {
+            // the waits are not failed for one bad check, they are checked again after the backoff until their own deadlines
+            logger.warn(String.format("Could not check the code locations of %d waits, trying again: %s", tickWaits.size(), e.getMessage()));
+            checkFailure = e;
+        }
+
+        final long currentTime = System.currentTimeMillis();
+        final List<CodeLocationWait<?>> completedWaits = new ArrayList<>();
+        final List<CodeLocationWait<?>> timedOutWaits = new ArrayList<>();
+        for (final CodeLocationWait<?> wait : tickWaits) {
+            wait.lastCheckFailure = checkFailure;
+            if (null == checkFailure && wait.tracker.isComplete()) {
+                completedWaits.add(wait);
+            } else if (currentTime >= wait.deadline) {
+                timedOutWaits.add(wait);
+            }
+        }
+
+        synchronized (lock) {
+            tickInProgress = false;
+            waits.removeAll(completedWaits);
+            waits.removeAll(timedOutWaits);
+            waits.removeIf(wait -> wait.future.isDone());
+            if (!waits.isEmpty()) {
+                attemptsWithoutProgress = progress ? 0 : attemptsWithoutProgress + 1;
+                final long nextDeadline = waits.stream().mapToLong(wait -> wait.deadline).min().getAsLong();
+                final long backoffDelay = waitAddedDuringTick ? 0 : CodeLocationCreationService.getWaitDelay(attemptsWithoutProgress);
+                final long delay = Math.max(0, Math.min(backoffDelay, nextDeadline - currentTime));
+                logger.debug(String.format("Waiting %dms for the code locations of %d requests to be added to the BOM...", delay, waits.size()));
+                scheduleTick(delay);
+            }
+        }
+
+        completedWaits.forEach(CodeLocationWait::complete);
+        timedOutWaits.forEach(CodeLocationWait::timeOut);
+    }
+
+    private void scheduleTick(final long delay) {
+        if (null != nextTick) {
+            nextTick.cancel(false);
+        }
+        nextTick = scheduler.schedule(this::tick, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private static class CodeLocationWait<T> {
+        private final CodeLocationCompletionTracker tracker;
+        private final long deadline;
+        private final long timeoutInSeconds;
+        private final T output;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private Exception lastCheckFailure;
+
+        public CodeLocationWait(final CodeLocationCompletionTracker tracker, final long deadline, final long timeoutInSeconds, final T output) {
+            this.tracker = tracker;
+            this.deadline = deadline;
+            this.timeoutInSeconds = timeoutInSeconds;
+            this.output = output;
+        }
+
+        public void complete() {
+            future.complete(output);
+        }
+
+        public void timeOut() {
+            final String message = String.format("It was not possible to verify the code locations were added to the BOM within the timeout (%ds) provided.", timeoutInSeconds);
+            if (null == lastCheckFailure) {
+                future.completeExceptionally(new HubTimeoutExceededException(message));
+            } else {
+                future.completeExceptionally(new HubTimeoutExceededException(message + " The last check failed: " + lastCheckFailure.getMessage(), lastCheckFailure));
+            }
+        }
+    }
+
+}
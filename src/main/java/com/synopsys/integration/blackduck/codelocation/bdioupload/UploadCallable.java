@@ -23,12 +23,10 @@
  */
 package com.synopsys.integration.blackduck.codelocation.bdioupload;
 
+import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.concurrent.Callable;
 
-import org.apache.commons.io.FileUtils;
-
 import com.synopsys.integration.blackduck.service.HubService;
 import com.synopsys.integration.blackduck.service.model.RequestFactory;
 import com.synopsys.integration.rest.request.Request;
@@ -46,15 +44,14 @@ public class UploadCallable implements Callable<UploadOutput> {
     @Override
     public UploadOutput call() {
         try {
-            final String jsonPayload;
-            try {
-                jsonPayload = FileUtils.readFileToString(uploadTarget.getUploadFile(), StandardCharsets.UTF_8);
-            } catch (final IOException e) {
-                return UploadOutput.FAILURE(uploadTarget.getCodeLocationName(), "Failed to upload file: " + uploadTarget.getUploadFile().getAbsolutePath() + " because " + e.getMessage(), e);
+            final File uploadFile = uploadTarget.getUploadFile();
+            if (!uploadFile.isFile() || !uploadFile.canRead()) {
+                return UploadOutput.FAILURE(uploadTarget.getCodeLocationName(), "Failed to upload file: " + uploadFile.getAbsolutePath() + " because it does not exist or can not be read", null);
             }
 
+            // the file is streamed as the request body, with its length as the Content-Length, rather than read into memory first
             final String uri = hubService.getUri(HubService.BOMIMPORT_PATH);
-            final Request request = RequestFactory.createCommonPostRequestBuilder(jsonPayload).uri(uri).mimeType(uploadTarget.getMediaType()).build();
+            final Request request = RequestFactory.createCommonPostRequestBuilder(uploadFile).uri(uri).mimeType(uploadTarget.getMediaType()).build();
             try (Response response = hubService.executeRequest(request)) {
                 final String responseString = response.getContentString();
                 return UploadOutput.SUCCESS(uploadTarget.getCodeLocationName(), responseString);
@@ -0,0 +1,173 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.notification;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TimeZone;
+
+import com.synopsys.integration.blackduck.api.generated.view.NotificationView;
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.blackduck.service.NotificationService;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.rest.RestConstants;
+
+/**
+ * Remembers, in a local checkpoint file, the createdAt of the most recent notification it has returned along with the hrefs of every notification returned at exactly that createdAt. Each pollNext() only asks the Hub for
+ * notifications from that createdAt onward and drops the ones it has already returned, so a restarted process picks up where it left off instead of re-reading history.
+ * <p>
+ * The checkpoint is written before pollNext() returns, so a notification is only ever returned once, even if the caller fails to process it.
+ */
+public class NotificationCursor {
+    private final NotificationService notificationService;
+    private final File checkpointFile;
+    private final Optional<List<String>> notificationTypesToInclude;
+
+    private Date latestCreatedAt;
+    private Set<String> latestHrefs = new HashSet<>();
+
+    public NotificationCursor(final NotificationService notificationService, final File checkpointFile) throws IntegrationException {
+        this(notificationService, checkpointFile, Optional.empty());
+    }
+
+    public NotificationCursor(final NotificationService notificationService, final File checkpointFile, final List<String> notificationTypesToInclude) throws IntegrationException {
+        this(notificationService, checkpointFile, Optional.of(notificationTypesToInclude));
+    }
+
+    private NotificationCursor(final NotificationService notificationService, final File checkpointFile, final Optional<List<String>> notificationTypesToInclude) throws IntegrationException {
+        this.notificationService = notificationService;
+        this.checkpointFile = checkpointFile;
+        this.notificationTypesToInclude = notificationTypesToInclude;
+        readCheckpoint();
+    }
+
+    /**
+     * @return The notifications created since the last poll, in the order the Hub returned them. Without a checkpoint file the cursor starts at the date of the most recent notification, so only that notification and anything
+     * newer will be returned.
+     * @throws IntegrationException
+     */
+    public synchronized List<NotificationView> pollNext() throws IntegrationException {
+        if (null == latestCreatedAt) {
+            latestCreatedAt = notificationService.getLatestNotificationDate();
+        }
+        final Date endDate = new Date();
+        final List<NotificationView> notifications;
+        if (notificationTypesToInclude.isPresent()) {
+            notifications = notificationService.getFilteredNotifications(latestCreatedAt, endDate, notificationTypesToInclude.get());
+        } else {
+            notifications = notificationService.getAllNotifications(latestCreatedAt, endDate);
+        }
+
+        final List<NotificationView> newNotifications = new ArrayList<>();
+        Date newLatestCreatedAt = latestCreatedAt;
+        for (final NotificationView notification : notifications) {
+            if (isNew(notification)) {
+                newNotifications.add(notification);
+                if (notification.createdAt.after(newLatestCreatedAt)) {
+                    newLatestCreatedAt = notification.createdAt;
+                }
+            }
+        }
+        if (newNotifications.isEmpty()) {
+            return newNotifications;
+        }
+
+        final Set<String> newLatestHrefs = newLatestCreatedAt.equals(latestCreatedAt) ? new HashSet<>(latestHrefs) : new HashSet<>();
+        for (final NotificationView notification : newNotifications) {
+            if (notification.createdAt.equals(newLatestCreatedAt) && null != notification._meta) {
+                newLatestHrefs.add(notification._meta.href);
+            }
+        }
+        writeCheckpoint(newLatestCreatedAt, newLatestHrefs);
+        latestCreatedAt = newLatestCreatedAt;
+        latestHrefs = newLatestHrefs;
+        return newNotifications;
+    }
+
+    public synchronized Optional<Date> getLatestCreatedAt() {
+        return Optional.ofNullable(latestCreatedAt);
+    }
+
+    private boolean isNew(final NotificationView notification) {
+        if (null == notification.createdAt || notification.createdAt.before(latestCreatedAt)) {
+            return false;
+        }
+        if (notification.createdAt.equals(latestCreatedAt)) {
+            return null == notification._meta || !latestHrefs.contains(notification._meta.href);
+        }
+        return true;
+    }
+
+    private void readCheckpoint() throws IntegrationException {
+        if (!checkpointFile.isFile()) {
+            return;
+        }
+        try {
+            final List<String> lines = Files.readAllLines(checkpointFile.toPath(), StandardCharsets.UTF_8);
+            if (lines.isEmpty()) {
+                return;
+            }
+            latestCreatedAt = createDateFormat().parse(lines.get(0));
+            for (final String href : lines.subList(1, lines.size())) {
+                if (!href.isEmpty()) {
+                    latestHrefs.add(href);
+                }
+            }
+        } catch (final IOException | ParseException e) {
+            throw new HubIntegrationException(String.format("Could not read the notification checkpoint %s: %s", checkpointFile.getAbsolutePath(), e.getMessage()), e);
+        }
+    }
+
+    private void writeCheckpoint(final Date createdAt, final Set<String> hrefs) throws IntegrationException {
+        final List<String> lines = new ArrayList<>();
+        lines.add(createDateFormat().format(createdAt));
+        lines.addAll(hrefs);
+        // write a sibling file and move it into place so a crash can never leave a partial checkpoint behind
+        final File temporaryFile = new File(checkpointFile.getAbsoluteFile().getParentFile(), checkpointFile.getName() + ".tmp");
+        try {
+            Files.write(temporaryFile.toPath(), lines, StandardCharsets.UTF_8);
+            Files.move(temporaryFile.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            throw new HubIntegrationException(String.format("Could not write the notification checkpoint %s: %s", checkpointFile.getAbsolutePath(), e.getMessage()), e);
+        }
+    }
+
+    private SimpleDateFormat createDateFormat() {
+        final SimpleDateFormat sdf = new SimpleDateFormat(RestConstants.JSON_DATE_FORMAT);
+        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return sdf;
+    }
+
+}
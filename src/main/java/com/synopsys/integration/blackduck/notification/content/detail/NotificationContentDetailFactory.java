@@ -23,15 +23,19 @@
  */
 package com.synopsys.integration.blackduck.notification.content.detail;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 import com.synopsys.integration.blackduck.api.component.AffectedProjectVersion;
 import com.synopsys.integration.blackduck.api.generated.enumeration.NotificationType;
 import com.synopsys.integration.blackduck.notification.CommonNotificationView;
@@ -47,40 +51,59 @@ import com.synopsys.integration.blackduck.notification.content.VulnerabilityNoti
 
 public class NotificationContentDetailFactory {
     private final Gson gson;
-    private final JsonParser jsonParser;
 
+    /**
+     * @deprecated the notification content is read straight from the json text, so the JsonParser is no longer used - use {@link #NotificationContentDetailFactory(Gson)} instead
+     */
+    @Deprecated
     public NotificationContentDetailFactory(final Gson gson, final JsonParser jsonParser) {
+        this(gson);
+    }
+
+    public NotificationContentDetailFactory(final Gson gson) {
         this.gson = gson;
-        this.jsonParser = jsonParser;
+    }
+
+    /**
+     * Generates the details of every view on the calling thread. The results are in the same order as the views.
+     */
+    public List<NotificationDetailResult> generateContentDetails(final List<CommonNotificationView> views) {
+        return views.stream().map(this::generateContentDetails).collect(Collectors.toList());
+    }
+
+    /**
+     * Generates the details of every view in parallel on the provided fork-join pool. The results are in the same order as the views.
+     */
+    public List<NotificationDetailResult> generateContentDetails(final List<CommonNotificationView> views, final ForkJoinPool forkJoinPool) {
+        return forkJoinPool.submit(() -> views.parallelStream().map(this::generateContentDetails).collect(Collectors.toList())).join();
     }
 
     public NotificationDetailResult generateContentDetails(final CommonNotificationView view) {
         final NotificationType type = view.getType();
         final String notificationJson = view.json;
-        final JsonObject jsonObject = jsonParser.parse(notificationJson).getAsJsonObject();
 
         NotificationContent notificationContent = null;
         String notificationGroup = null;
         final List<NotificationContentDetail> notificationContentDetails = new ArrayList<>();
 
         if (NotificationType.POLICY_OVERRIDE.equals(type)) {
-            notificationContent = gson.fromJson(jsonObject.get("content"), PolicyOverrideNotificationContent.class);
+            notificationContent = getContent(notificationJson, PolicyOverrideNotificationContent.class);
             notificationGroup = NotificationContentDetail.CONTENT_KEY_GROUP_POLICY;
             populateContentDetails(notificationContentDetails, notificationGroup, (PolicyOverrideNotificationContent) notificationContent);
         } else if (NotificationType.RULE_VIOLATION.equals(type)) {
-            notificationContent = gson.fromJson(jsonObject.get("content"), RuleViolationNotificationContent.class);
+            notificationContent = getContent(notificationJson, RuleViolationNotificationContent.class);
             notificationGroup = NotificationContentDetail.CONTENT_KEY_GROUP_POLICY;
             populateContentDetails(notificationContentDetails, notificationGroup, (RuleViolationNotificationContent) notificationContent);
         } else if (NotificationType.RULE_VIOLATION_CLEARED.equals(type)) {
-            notificationContent = gson.fromJson(jsonObject.get("content"), RuleViolationClearedNotificationContent.class);
+            notificationContent = getContent(notificationJson, RuleViolationClearedNotificationContent.class);
             notificationGroup = NotificationContentDetail.CONTENT_KEY_GROUP_POLICY;
             populateContentDetails(notificationContentDetails, notificationGroup, (RuleViolationClearedNotificationContent) notificationContent);
         } else if (NotificationType.VULNERABILITY.equals(type)) {
-            notificationContent = gson.fromJson(jsonObject.get("content"), VulnerabilityNotificationContent.class);
+            notificationContent = getContent(notificationJson, VulnerabilityNotificationContent.class);
             notificationGroup = NotificationContentDetail.CONTENT_KEY_GROUP_VULNERABILITY;
             populateContentDetails(notificationContentDetails, notificationGroup, (VulnerabilityNotificationContent) notificationContent);
         } else if (NotificationType.BOM_EDIT.equals(type)) {
-            notificationContent = gson.fromJson(jsonObject.get("content"), BomEditContent.class);
+            notificationContent = getContent(notificationJson, BomEditContent.class);
             notificationGroup = NotificationContentDetail.CONTENT_KEY_GROUP_BOM_EDIT;
             populateContentDetails(notificationContentDetails, notificationGroup, (BomEditContent) notificationContent);
         }
@@ -152,6 +175,24 @@ public class NotificationContentDetailFactory {
         }
     }
 
+    /**
+     * Binds the 'content' member straight from the notification's json, skipping everything else, so no json tree of the notification is ever built.
+     */
+    private <T extends NotificationContent> T getContent(final String notificationJson, final Class<T> contentClass) {
+        try (final JsonReader jsonReader = new JsonReader(new StringReader(notificationJson))) {
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                if ("content".equals(jsonReader.nextName())) {
+                    return gson.fromJson(jsonReader, contentClass);
+                }
+                jsonReader.skipValue();
+            }
+            return null;
+        } catch (final IOException e) {
+            throw new JsonParseException(e);
+        }
+    }
+
     private void populateContentDetails(final List<NotificationContentDetail> notificationContentDetails, final String notificationGroup, final BomEditContent notificationContent) {
         final NotificationContentDetail detail = NotificationContentDetail
                 .createDetail(notificationGroup, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(),
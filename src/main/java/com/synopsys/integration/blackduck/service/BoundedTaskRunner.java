@@ -0,0 +1,107 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.exception.IntegrationException;
+
+/**
+ * Runs tasks on an executor with a bounded number in flight, always waiting on the oldest one, so the results come back in task order. The tasks are taken from the Iterator on the calling thread, one
+ * at a time as room frees up.
+ * <p>
+ * The tasks must never block on other work submitted to the same executor, for example with a getAllResponses on a HubService that pages concurrently on that executor. On a bounded executor every
+ * thread can end up waiting on work queued behind it, and nothing completes.
+ */
+final class BoundedTaskRunner {
+    private BoundedTaskRunner() {
+    }
+
+    public static <T> List<T> callAll(final Optional<ExecutorService> executorService, final int maxTasksInFlight, final List<? extends Callable<T>> tasks, final String description) throws IntegrationException {
+        return callAll(executorService, maxTasksInFlight, tasks.iterator(), description);
+    }
+
+    /**
+     * Without an executor, or with maxTasksInFlight below 2, the tasks are simply called in order on the calling thread. The first failure stops the remaining tasks and cancels those in flight; an
+     * IntegrationException is thrown as it is, anything else is wrapped in a HubIntegrationException.
+     * @param description What the tasks retrieve, for the message when interrupted.
+     */
+    public static <T> List<T> callAll(final Optional<ExecutorService> executorService, final int maxTasksInFlight, final Iterator<? extends Callable<T>> tasks, final String description)
+            throws IntegrationException {
+        final List<T> results = new ArrayList<>();
+        if (!executorService.isPresent() || maxTasksInFlight < 2) {
+            while (tasks.hasNext()) {
+                results.add(call(tasks.next()));
+            }
+            return results;
+        }
+
+        final Deque<Future<T>> inFlight = new ArrayDeque<>();
+        try {
+            while (tasks.hasNext() && inFlight.size() < maxTasksInFlight) {
+                inFlight.add(executorService.get().submit(tasks.next()));
+            }
+            while (!inFlight.isEmpty()) {
+                results.add(inFlight.removeFirst().get());
+                if (tasks.hasNext()) {
+                    inFlight.add(executorService.get().submit(tasks.next()));
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HubIntegrationException(String.format("Interrupted while waiting for the %s: %s", description, e.getMessage()), e);
+        } catch (final ExecutionException e) {
+            throw toIntegrationException(e.getCause());
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    private static <T> T call(final Callable<T> task) throws IntegrationException {
+        try {
+            return task.call();
+        } catch (final Exception e) {
+            throw toIntegrationException(e);
+        }
+    }
+
+    private static IntegrationException toIntegrationException(final Throwable throwable) {
+        if (throwable instanceof IntegrationException) {
+            return (IntegrationException) throwable;
+        }
+        return new HubIntegrationException(throwable.getMessage(), throwable);
+    }
+
+}
@@ -24,8 +24,16 @@
 package com.synopsys.integration.blackduck.service;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -36,6 +44,9 @@ import com.synopsys.integration.blackduck.api.generated.view.CodeLocationView;
 import com.synopsys.integration.blackduck.api.generated.view.ProjectVersionView;
 import com.synopsys.integration.blackduck.api.view.ScanSummaryView;
 import com.synopsys.integration.blackduck.exception.DoesNotExistException;
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.blackduck.service.concurrent.RateLimiter;
+import com.synopsys.integration.blackduck.service.model.CodeLocationBulkResult;
 import com.synopsys.integration.blackduck.service.model.HubQuery;
 import com.synopsys.integration.blackduck.service.model.RequestFactory;
 import com.synopsys.integration.exception.IntegrationException;
@@ -46,8 +57,41 @@ import com.synopsys.integration.rest.request.Request;
 import com.synopsys.integration.rest.request.Response;
 
 public class CodeLocationService extends DataService {
+    public static final long NO_CACHE = 0L;
+
+    private final long codeLocationUrlCacheTimeToLiveInMilliseconds;
+    private final Map<String, CachedCodeLocationUrl> codeLocationUrlCache = new ConcurrentHashMap<>();
+    private final Optional<ExecutorService> executorService;
+    private final int maxConcurrentRequests;
+    private final RateLimiter rateLimiter;
+
     public CodeLocationService(final HubService hubService, final IntLogger logger) {
+        this(hubService, logger, NO_CACHE);
+    }
+
+    /**
+     * The urls of the code locations found by getCodeLocationsByNames will be remembered by name for the time to live, so that getCodeLocationUrlsByNames can skip looking them up again.
+     */
+    public CodeLocationService(final HubService hubService, final IntLogger logger, final long codeLocationUrlCacheTimeToLiveInMilliseconds) {
+        this(hubService, logger, codeLocationUrlCacheTimeToLiveInMilliseconds, Optional.empty(), 1, RateLimiter.NO_LIMIT);
+    }
+
+    /**
+     * The bulk methods will run their requests on the provided executor, with at most maxConcurrentRequests in flight and no more than maxRequestsPerSecond started in any second. It is up to the user of
+     * the CodeLocationService to shutdown the executor.
+     */
+    public CodeLocationService(final HubService hubService, final IntLogger logger, final long codeLocationUrlCacheTimeToLiveInMilliseconds, final ExecutorService executorService, final int maxConcurrentRequests,
+            final double maxRequestsPerSecond) {
+        this(hubService, logger, codeLocationUrlCacheTimeToLiveInMilliseconds, Optional.of(executorService), maxConcurrentRequests, maxRequestsPerSecond);
+    }
+
+    private CodeLocationService(final HubService hubService, final IntLogger logger, final long codeLocationUrlCacheTimeToLiveInMilliseconds, final Optional<ExecutorService> executorService,
+            final int maxConcurrentRequests, final double maxRequestsPerSecond) {
         super(hubService, logger);
+        this.codeLocationUrlCacheTimeToLiveInMilliseconds = Math.max(NO_CACHE, codeLocationUrlCacheTimeToLiveInMilliseconds);
+        this.executorService = executorService;
+        this.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
+        this.rateLimiter = new RateLimiter(maxRequestsPerSecond);
     }
 
     public void unmapCodeLocations(final List<CodeLocationView> codeLocationViews) throws IntegrationException {
@@ -93,10 +137,46 @@ public class CodeLocationService extends DataService {
 
     public void deleteCodeLocation(final CodeLocationView codeLocationView) throws IntegrationException {
         final String codeLocationViewUrl = hubService.getHref(codeLocationView);
-        deleteCodeLocation(codeLocationViewUrl);
+        if (null != codeLocationView.name) {
+            codeLocationUrlCache.remove(codeLocationView.name);
+        }
+        executeDeleteRequest(codeLocationViewUrl);
     }
 
     public void deleteCodeLocation(final String codeLocationViewUrl) throws IntegrationException {
+        codeLocationUrlCache.values().removeIf(cachedCodeLocationUrl -> cachedCodeLocationUrl.href.equals(codeLocationViewUrl));
+        executeDeleteRequest(codeLocationViewUrl);
+    }
+
+    /**
+     * Deletes the code locations concurrently, if the CodeLocationService has an ExecutorService. A failure is reported in the result of its code location and does not stop the others.
+     * @return One result per code location, in the same order.
+     */
+    public List<CodeLocationBulkResult> bulkDeleteCodeLocations(final List<CodeLocationView> codeLocationViews) throws IntegrationException {
+        return updateCodeLocationsInBulk("deleted", codeLocationViews, this::deleteCodeLocation);
+    }
+
+    /**
+     * Unmaps the code locations concurrently, if the CodeLocationService has an ExecutorService. A failure is reported in the result of its code location and does not stop the others.
+     * @return One result per code location, in the same order.
+     */
+    public List<CodeLocationBulkResult> bulkUnmapCodeLocations(final List<CodeLocationView> codeLocationViews) throws IntegrationException {
+        return updateCodeLocationsInBulk("unmapped", codeLocationViews, this::unmapCodeLocation);
+    }
+
+    public List<CodeLocationBulkResult> bulkMapCodeLocations(final List<CodeLocationView> codeLocationViews, final ProjectVersionView version) throws IntegrationException {
+        return bulkMapCodeLocations(codeLocationViews, hubService.getHref(version));
+    }
+
+    /**
+     * Maps the code locations to the version concurrently, if the CodeLocationService has an ExecutorService. A failure is reported in the result of its code location and does not stop the others.
+     * @return One result per code location, in the same order.
+     */
+    public List<CodeLocationBulkResult> bulkMapCodeLocations(final List<CodeLocationView> codeLocationViews, final String versionUrl) throws IntegrationException {
+        return updateCodeLocationsInBulk("mapped", codeLocationViews, codeLocationView -> mapCodeLocation(codeLocationView, versionUrl));
+    }
+
+    private void executeDeleteRequest(final String codeLocationViewUrl) throws IntegrationException {
         final Request deleteRequest = new Request.Builder(codeLocationViewUrl).method(HttpMethod.DELETE).build();
         try (Response response = hubService.executeRequest(deleteRequest)) {
         } catch (final IOException e) {
@@ -104,6 +184,36 @@ public class CodeLocationService extends DataService {
         }
     }
 
+    private List<CodeLocationBulkResult> updateCodeLocationsInBulk(final String updateDescription, final List<CodeLocationView> codeLocationViews, final CodeLocationUpdate codeLocationUpdate)
+            throws IntegrationException {
+        final List<Callable<CodeLocationBulkResult>> updates = new ArrayList<>(codeLocationViews.size());
+        for (final CodeLocationView codeLocationView : codeLocationViews) {
+            updates.add(() -> updateCodeLocation(codeLocationView, codeLocationUpdate));
+        }
+        // the updates report their own failures, so only an interruption stops the batch
+        final List<CodeLocationBulkResult> results = BoundedTaskRunner.callAll(executorService, maxConcurrentRequests, updates, "code locations to be " + updateDescription);
+
+        final long failureCount = results.stream().filter(result -> !result.isSuccess()).count();
+        logger.info(String.format("%d of %d code locations were %s, %d failed.", results.size() - failureCount, results.size(), updateDescription, failureCount));
+        return results;
+    }
+
+    private CodeLocationBulkResult updateCodeLocation(final CodeLocationView codeLocationView, final CodeLocationUpdate codeLocationUpdate) throws HubIntegrationException {
+        try {
+            rateLimiter.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HubIntegrationException("Interrupted while waiting to update a code location: " + e.getMessage(), e);
+        }
+        try {
+            codeLocationUpdate.update(codeLocationView);
+            return CodeLocationBulkResult.success(codeLocationView);
+        } catch (final Exception e) {
+            logger.debug(String.format("Could not update the code location %s: %s", codeLocationView.name, e.getMessage()));
+            return CodeLocationBulkResult.failure(codeLocationView, e);
+        }
+    }
+
     public CodeLocationView getCodeLocationByName(final String codeLocationName) throws IntegrationException {
         if (StringUtils.isNotBlank(codeLocationName)) {
             final Optional<HubQuery> hubQuery = HubQuery.createQuery("name", codeLocationName);
@@ -119,6 +229,76 @@ public class CodeLocationService extends DataService {
         throw new DoesNotExistException("This Code Location does not exist. Code Location: " + codeLocationName);
     }
 
+    /**
+     * Looks up many code locations at once. A single name is still found with a name query, but for more names the code location collection is retrieved once, in concurrent pages when the HubService
+     * has an ExecutorService, and matched by name, instead of a query per name.
+     * @return The code locations that exist, by name. Names that do not exist yet are simply missing from the map.
+     */
+    public Map<String, CodeLocationView> getCodeLocationsByNames(final Set<String> codeLocationNames) throws IntegrationException {
+        final Map<String, CodeLocationView> codeLocationsByName = new HashMap<>();
+        if (codeLocationNames.isEmpty()) {
+            return codeLocationsByName;
+        }
+
+        final List<CodeLocationView> codeLocations;
+        if (codeLocationNames.size() == 1) {
+            final Optional<HubQuery> hubQuery = HubQuery.createQuery("name", codeLocationNames.iterator().next());
+            final Request.Builder requestBuilder = RequestFactory.createCommonGetRequestBuilder(hubQuery);
+            codeLocations = hubService.getAllResponses(ApiDiscovery.CODELOCATIONS_LINK_RESPONSE, requestBuilder);
+        } else {
+            codeLocations = hubService.getAllResponses(ApiDiscovery.CODELOCATIONS_LINK_RESPONSE);
+        }
+
+        final long expiresAt = System.currentTimeMillis() + codeLocationUrlCacheTimeToLiveInMilliseconds;
+        for (final CodeLocationView codeLocation : codeLocations) {
+            if (null == codeLocation.name) {
+                continue;
+            }
+            if (codeLocationNames.contains(codeLocation.name)) {
+                codeLocationsByName.put(codeLocation.name, codeLocation);
+            }
+            // every code location retrieved is cached, not just the requested ones, so the next batch of names may not need a request at all
+            if (NO_CACHE != codeLocationUrlCacheTimeToLiveInMilliseconds && null != codeLocation._meta && null != codeLocation._meta.href) {
+                codeLocationUrlCache.put(codeLocation.name, new CachedCodeLocationUrl(codeLocation._meta.href, expiresAt));
+            }
+        }
+        return codeLocationsByName;
+    }
+
+    /**
+     * Like getCodeLocationsByNames, but names with an unexpired url in the cache are not looked up at all.
+     * @return The urls of the code locations that exist, by name.
+     */
+    public Map<String, String> getCodeLocationUrlsByNames(final Set<String> codeLocationNames) throws IntegrationException {
+        final Map<String, String> codeLocationUrlsByName = new HashMap<>();
+        final Set<String> uncachedCodeLocationNames = new HashSet<>();
+        final long currentTime = System.currentTimeMillis();
+        for (final String codeLocationName : codeLocationNames) {
+            final CachedCodeLocationUrl cachedCodeLocationUrl = codeLocationUrlCache.get(codeLocationName);
+            if (null != cachedCodeLocationUrl && cachedCodeLocationUrl.expiresAt > currentTime) {
+                codeLocationUrlsByName.put(codeLocationName, cachedCodeLocationUrl.href);
+            } else {
+                uncachedCodeLocationNames.add(codeLocationName);
+            }
+        }
+
+        if (!uncachedCodeLocationNames.isEmpty()) {
+            codeLocationUrlCache.values().removeIf(cachedCodeLocationUrl -> cachedCodeLocationUrl.expiresAt <= currentTime);
+            final Map<String, CodeLocationView> codeLocationsByName = getCodeLocationsByNames(uncachedCodeLocationNames);
+            for (final Map.Entry<String, CodeLocationView> entry : codeLocationsByName.entrySet()) {
+                final CodeLocationView codeLocationView = entry.getValue();
+                if (null != codeLocationView._meta && null != codeLocationView._meta.href) {
+                    codeLocationUrlsByName.put(entry.getKey(), codeLocationView._meta.href);
+                }
+            }
+        }
+        return codeLocationUrlsByName;
+    }
+
+    public void clearCodeLocationUrlCache() {
+        codeLocationUrlCache.clear();
+    }
+
     public CodeLocationView getCodeLocationById(final String codeLocationId) throws IntegrationException {
         final HubPath hubPath = new HubPath(ApiDiscovery.CODELOCATIONS_LINK.getPath() + "/" + codeLocationId);
         final HubPathSingleResponse<CodeLocationView> codeLocationResponse = new HubPathSingleResponse<>(hubPath, CodeLocationView.class);
@@ -140,4 +320,18 @@ public class CodeLocationService extends DataService {
         return hubService.getResponse(uri, ScanSummaryView.class);
     }
 
+    private interface CodeLocationUpdate {
+        void update(CodeLocationView codeLocationView) throws IntegrationException;
+    }
+
+    private static class CachedCodeLocationUrl {
+        private final String href;
+        private final long expiresAt;
+
+        public CachedCodeLocationUrl(final String href, final long expiresAt) {
+            this.href = href;
+            this.expiresAt = expiresAt;
+        }
+    }
+
 }
@@ -23,13 +23,17 @@
  */
 package com.synopsys.integration.blackduck.service;
 
-import java.text.SimpleDateFormat;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-import java.util.TimeZone;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import com.synopsys.integration.blackduck.api.UriSingleResponse;
@@ -42,17 +46,31 @@ import com.synopsys.integration.blackduck.notification.NotificationDetailResult;
 import com.synopsys.integration.blackduck.notification.NotificationDetailResults;
 import com.synopsys.integration.blackduck.notification.content.detail.NotificationContentDetailFactory;
 import com.synopsys.integration.blackduck.service.bucket.HubBucket;
+import com.synopsys.integration.blackduck.service.bucket.HubBucketFillResult;
 import com.synopsys.integration.blackduck.service.bucket.HubBucketService;
 import com.synopsys.integration.exception.IntegrationException;
 import com.synopsys.integration.rest.RestConstants;
 
 public class CommonNotificationService {
+    private static final DateTimeFormatter CREATED_AT_FORMATTER = DateTimeFormatter.ofPattern(RestConstants.JSON_DATE_FORMAT).withZone(ZoneOffset.UTC);
+
     private final NotificationContentDetailFactory notificationContentDetailFactory;
     private final boolean oldestFirst;
+    private final Optional<ForkJoinPool> forkJoinPool;
 
     public CommonNotificationService(final NotificationContentDetailFactory notificationContentDetailFactory, final boolean oldestFirst) {
         this.notificationContentDetailFactory = notificationContentDetailFactory;
         this.oldestFirst = oldestFirst;
+        forkJoinPool = Optional.empty();
+    }
+
+    /**
+     * The notification details will be generated in parallel on the provided pool. Without one they are generated sequentially on the calling thread.
+     */
+    public CommonNotificationService(final NotificationContentDetailFactory notificationContentDetailFactory, final boolean oldestFirst, final ForkJoinPool forkJoinPool) {
+        this.notificationContentDetailFactory = notificationContentDetailFactory;
+        this.oldestFirst = oldestFirst;
+        this.forkJoinPool = Optional.of(forkJoinPool);
     }
 
     public List<CommonNotificationView> getCommonNotifications(final List<NotificationView> notificationViews) {
@@ -85,42 +103,100 @@ public class CommonNotificationService {
             return new NotificationDetailResults(Collections.emptyList(), Optional.empty(), Optional.empty());
         }
 
-        List<NotificationDetailResult> sortedDetails = commonNotifications.stream().map(view -> {
-            return notificationContentDetailFactory.generateContentDetails(view);
-        }).collect(Collectors.toList());
+        final List<NotificationDetailResult> sortedDetails;
+        if (forkJoinPool.isPresent()) {
+            sortedDetails = notificationContentDetailFactory.generateContentDetails(commonNotifications, forkJoinPool.get());
+        } else {
+            sortedDetails = notificationContentDetailFactory.generateContentDetails(commonNotifications);
+        }
 
         if (oldestFirst) {
             // we don't want to use the default sorting from the hub
-            sortedDetails = sortedDetails.stream().sorted((result_1, result_2) -> {
-                return result_1.getCreatedAt().compareTo(result_2.getCreatedAt());
-            }).collect(Collectors.toList());
+            sortOldestFirst(sortedDetails);
         }
 
         final DatePair datePair = getLatestCreatedAtString(commonNotifications);
         return new NotificationDetailResults(sortedDetails, datePair.date, datePair.dateString);
     }
 
-    public void populateHubBucket(final HubBucketService hubBucketService, final HubBucket hubBucket, final NotificationDetailResults notificationDetailResults) throws IntegrationException {
+    /**
+     * Each list must be in the hub's order (most recent first), for example the pages or date windows retrieved separately. They are merged rather than sorted, so the cost is O(n log k) for k lists.
+     */
+    public NotificationDetailResults getMergedNotificationDetailResults(final List<List<CommonNotificationView>> sortedCommonNotifications) throws IntegrationException {
+        return getNotificationDetailResults(mergeCommonNotifications(sortedCommonNotifications));
+    }
+
+    /**
+     * @return The views of every list, most recent first. Each list must already be most recent first. Views created at the same time keep the order of their lists.
+     */
+    public List<CommonNotificationView> mergeCommonNotifications(final List<List<CommonNotificationView>> sortedCommonNotifications) {
+        final List<CommonNotificationView> mergedViews = new ArrayList<>();
+        final PriorityQueue<MergeCursor> mergeCursors = new PriorityQueue<>(Math.max(1, sortedCommonNotifications.size()));
+        for (int i = 0; i < sortedCommonNotifications.size(); i++) {
+            final Iterator<CommonNotificationView> iterator = sortedCommonNotifications.get(i).iterator();
+            if (iterator.hasNext()) {
+                mergeCursors.add(new MergeCursor(i, iterator));
+            }
+        }
+        while (!mergeCursors.isEmpty()) {
+            final MergeCursor mergeCursor = mergeCursors.poll();
+            mergedViews.add(mergeCursor.current);
+            if (mergeCursor.advance()) {
+                mergeCursors.add(mergeCursor);
+            }
+        }
+        return mergedViews;
+    }
+
+    public HubBucketFillResult populateHubBucket(final HubBucketService hubBucketService, final HubBucket hubBucket, final NotificationDetailResults notificationDetailResults) throws IntegrationException {
         final List<UriSingleResponse<? extends HubResponse>> uriResponseList = new ArrayList<>();
         uriResponseList.addAll(notificationDetailResults.getAllLinks());
-        hubBucketService.addToTheBucket(hubBucket, uriResponseList);
+        return hubBucketService.addToTheBucket(hubBucket, uriResponseList);
     }
 
     private DatePair getLatestCreatedAtString(final List<CommonNotificationView> views) {
-        // sortedViews will be sorted most recent to oldest
-        final List<CommonNotificationView> sortedViews = views.stream().sorted((left, right) -> {
-            return right.getCreatedAt().compareTo(left.getCreatedAt());
-        }).collect(Collectors.toList());
-
-        final SimpleDateFormat sdf = new SimpleDateFormat(RestConstants.JSON_DATE_FORMAT);
-        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+        Date latestCreatedAtDate = views.get(0).getCreatedAt();
+        for (final CommonNotificationView view : views) {
+            if (view.getCreatedAt().after(latestCreatedAtDate)) {
+                latestCreatedAtDate = view.getCreatedAt();
+            }
+        }
 
-        // we know that the first in the list is the most current
-        final Date latestCreatedAtDate = sortedViews.get(0).getCreatedAt();
-        final String latestCreatedAtString = sdf.format(latestCreatedAtDate);
+        final String latestCreatedAtString = CREATED_AT_FORMATTER.format(latestCreatedAtDate.toInstant());
         return new DatePair(latestCreatedAtDate, latestCreatedAtString);
     }
 
+    /**
+     * The details are nearly always in the hub's order (most recent first), in which case they only need to be reversed. Any other order falls back to a stable sort. Either way, details created at the same time keep their
+     * original order.
+     */
+    private void sortOldestFirst(final List<NotificationDetailResult> details) {
+        boolean alreadyMostRecentFirst = true;
+        boolean alreadyOldestFirst = true;
+        for (int i = 1; i < details.size() && (alreadyMostRecentFirst || alreadyOldestFirst); i++) {
+            final int comparison = details.get(i - 1).getCreatedAt().compareTo(details.get(i).getCreatedAt());
+            alreadyMostRecentFirst &= comparison >= 0;
+            alreadyOldestFirst &= comparison <= 0;
+        }
+        if (alreadyOldestFirst) {
+            return;
+        }
+        if (!alreadyMostRecentFirst) {
+            details.sort(Comparator.comparing(NotificationDetailResult::getCreatedAt));
+            return;
+        }
+
+        Collections.reverse(details);
+        // reversing also reversed each run of equal createdAt, so put those runs back in their original order
+        int runStart = 0;
+        for (int i = 1; i <= details.size(); i++) {
+            if (i == details.size() || !details.get(i).getCreatedAt().equals(details.get(runStart).getCreatedAt())) {
+                Collections.reverse(details.subList(runStart, i));
+                runStart = i;
+            }
+        }
+    }
+
     private static class DatePair {
         public final Optional<Date> date;
         public final Optional<String> dateString;
@@ -131,4 +207,33 @@ public class CommonNotificationService {
         }
     }
 
+    private static class MergeCursor implements Comparable<MergeCursor> {
+        private final int listIndex;
+        private final Iterator<CommonNotificationView> iterator;
+        private CommonNotificationView current;
+
+        public MergeCursor(final int listIndex, final Iterator<CommonNotificationView> iterator) {
+            this.listIndex = listIndex;
+            this.iterator = iterator;
+            current = iterator.next();
+        }
+
+        public boolean advance() {
+            if (iterator.hasNext()) {
+                current = iterator.next();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int compareTo(final MergeCursor other) {
+            final int comparison = other.current.getCreatedAt().compareTo(current.getCreatedAt());
+            if (0 != comparison) {
+                return comparison;
+            }
+            return Integer.compare(listIndex, other.listIndex);
+        }
+    }
+
 }
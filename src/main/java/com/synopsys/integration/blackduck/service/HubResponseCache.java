@@ -0,0 +1,277 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpStatus;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.blackduck.rest.BlackDuckRestConnection;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.log.IntLogger;
+import com.synopsys.integration.rest.exception.IntegrationRestException;
+import com.synopsys.integration.rest.request.Request;
+import com.synopsys.integration.rest.request.Response;
+
+/**
+ * An on-disk cache of single GET responses, keyed by uri (including its query parameters) and Accept media type, that survives across runs. A cached response younger than freshForMillis is returned without any request,
+ * an older one is revalidated with a conditional GET carrying its ETag (If-None-Match) and Last-Modified (If-Modified-Since) so an unchanged resource only costs a 304. Once the cache is over maxBytes, the least
+ * recently used responses are deleted.
+ * <p>
+ * Caching is opt-in: only the responses of the given response classes, or of a uri starting with one of the given prefixes, go through the cache. Responses that are expected to change while they are
+ * being read, such as a report that is being polled, should not be included.
+ * <p>
+ * The key does not include who the request was made as, so the cacheDirectory must belong to a single set of credentials: a directory shared by connections with different permissions would
+ * serve the responses one user may see to the other. Use a separate cacheDirectory for each user or api token.
+ */
+public class HubResponseCache {
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    private static final String CACHE_FILE_EXTENSION = ".json";
+
+    private final File cacheDirectory;
+    private final long maxBytes;
+    private final long freshForMillis;
+    private final Set<Class<? extends HubResponse>> cachedResponseClasses;
+    private final Set<String> cachedUriPrefixes;
+    private final IntLogger logger;
+    private final Gson gson = new Gson();
+    private long currentBytes = -1;
+
+    public HubResponseCache(final File cacheDirectory, final Set<Class<? extends HubResponse>> cachedResponseClasses, final Set<String> cachedUriPrefixes, final IntLogger logger) {
+        this(cacheDirectory, DEFAULT_MAX_BYTES, 0, cachedResponseClasses, cachedUriPrefixes, logger);
+    }
+
+    public HubResponseCache(final File cacheDirectory, final long maxBytes, final long freshForMillis, final Set<Class<? extends HubResponse>> cachedResponseClasses, final Set<String> cachedUriPrefixes,
+            final IntLogger logger) {
+        this.cacheDirectory = cacheDirectory;
+        this.maxBytes = maxBytes;
+        this.freshForMillis = freshForMillis;
+        this.cachedResponseClasses = Collections.unmodifiableSet(new HashSet<>(cachedResponseClasses));
+        this.cachedUriPrefixes = Collections.unmodifiableSet(new HashSet<>(cachedUriPrefixes));
+        this.logger = logger;
+    }
+
+    /**
+     * @return true if the response of the uri, read as the responseClass, should go through the cache.
+     */
+    public boolean isCached(final String uri, final Class<? extends HubResponse> responseClass) {
+        return cachedResponseClasses.contains(responseClass) || cachedUriPrefixes.stream().anyMatch(uriPrefix -> StringUtils.startsWith(uri, uriPrefix));
+    }
+
+    public String getResponseJson(final BlackDuckRestConnection restConnection, final Request request) throws IntegrationException {
+        final String key = createKey(request);
+        final File cacheFile = new File(cacheDirectory, DigestUtils.sha256Hex(key) + CACHE_FILE_EXTENSION);
+        final Optional<CachedResponse> cachedResponse = read(cacheFile, key);
+        if (!cachedResponse.isPresent()) {
+            try (final Response response = restConnection.executeRequest(request)) {
+                return store(cacheFile, key, response);
+            } catch (final IOException e) {
+                throw new HubIntegrationException(e.getMessage(), e);
+            }
+        }
+
+        if (System.currentTimeMillis() - cachedResponse.get().storedAt < freshForMillis) {
+            touch(cacheFile);
+            return cachedResponse.get().json;
+        }
+
+        final Request conditionalRequest = createConditionalRequest(request, cachedResponse.get());
+        final Optional<Response> modifiedResponse = executeConditionalRequest(restConnection, conditionalRequest);
+        if (!modifiedResponse.isPresent()) {
+            logger.trace(String.format("Using the cached response for %s", request.getUri()));
+            // stored again so the response is fresh for another freshForMillis
+            cachedResponse.get().storedAt = System.currentTimeMillis();
+            write(cacheFile, cachedResponse.get());
+            return cachedResponse.get().json;
+        }
+        try (final Response response = modifiedResponse.get()) {
+            return store(cacheFile, key, response);
+        } catch (final IOException e) {
+            throw new HubIntegrationException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return An empty Optional if the Hub answered with a 304, that is, the cached response is still current.
+     */
+    private Optional<Response> executeConditionalRequest(final BlackDuckRestConnection restConnection, final Request conditionalRequest) throws IntegrationException {
+        final Response response;
+        try {
+            response = restConnection.executeRequest(conditionalRequest);
+        } catch (final IntegrationRestException e) {
+            // the rest connection treats every status outside of 2xx as a failure
+            if (HttpStatus.SC_NOT_MODIFIED == e.getHttpStatusCode()) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+        if (null != response.getStatusCode() && HttpStatus.SC_NOT_MODIFIED == response.getStatusCode()) {
+            try {
+                response.close();
+            } catch (final IOException e) {
+                throw new HubIntegrationException(e.getMessage(), e);
+            }
+            return Optional.empty();
+        }
+        return Optional.of(response);
+    }
+
+    /**
+     * The key is only made of the request, never of the credentials it is sent with, see the class documentation.
+     */
+    private String createKey(final Request request) {
+        final StringBuilder key = new StringBuilder(request.getUri());
+        if (null != request.getQueryParameters()) {
+            // sorted so the same parameters always produce the same key
+            final Map<String, Set<String>> sortedQueryParameters = new TreeMap<>(request.getQueryParameters());
+            sortedQueryParameters.forEach((name, values) -> key.append(String.format("&%s=%s", name, new TreeSet<>(values))));
+        }
+        key.append(System.lineSeparator()).append(StringUtils.defaultString(request.getMimeType()));
+        return key.toString();
+    }
+
+    private Request createConditionalRequest(final Request request, final CachedResponse cachedResponse) {
+        final Request.Builder requestBuilder = new Request.Builder(request.getUri()).mimeType(request.getMimeType());
+        if (null != request.getQueryParameters()) {
+            request.getQueryParameters().forEach((name, values) -> values.forEach(value -> requestBuilder.addQueryParameter(name, value)));
+        }
+        if (null != request.getAdditionalHeaders()) {
+            request.getAdditionalHeaders().forEach(requestBuilder::addAdditionalHeader);
+        }
+        if (StringUtils.isNotBlank(cachedResponse.eTag)) {
+            requestBuilder.addAdditionalHeader("If-None-Match", cachedResponse.eTag);
+        }
+        if (StringUtils.isNotBlank(cachedResponse.lastModifiedHeader)) {
+            // sent back exactly as the Hub sent it, as the Hub compares it to its own value
+            requestBuilder.addAdditionalHeader("If-Modified-Since", cachedResponse.lastModifiedHeader);
+        }
+        return requestBuilder.build();
+    }
+
+    private String store(final File cacheFile, final String key, final Response response) throws IntegrationException {
+        final CachedResponse cachedResponse = new CachedResponse();
+        cachedResponse.key = key;
+        cachedResponse.json = response.getContentString();
+        cachedResponse.eTag = response.getHeaderValue("ETag");
+        cachedResponse.lastModifiedHeader = response.getHeaderValue("Last-Modified");
+        cachedResponse.storedAt = System.currentTimeMillis();
+        // without a validator or a freshness window the response could never be used again
+        if (StringUtils.isNotBlank(cachedResponse.eTag) || StringUtils.isNotBlank(cachedResponse.lastModifiedHeader) || 0 < freshForMillis) {
+            write(cacheFile, cachedResponse);
+        }
+        return cachedResponse.json;
+    }
+
+    private Optional<CachedResponse> read(final File cacheFile, final String key) {
+        if (!cacheFile.isFile()) {
+            return Optional.empty();
+        }
+        try {
+            final CachedResponse cachedResponse = gson.fromJson(new String(Files.readAllBytes(cacheFile.toPath()), StandardCharsets.UTF_8), CachedResponse.class);
+            if (null != cachedResponse && key.equals(cachedResponse.key) && null != cachedResponse.json) {
+                return Optional.of(cachedResponse);
+            }
+        } catch (final IOException | JsonParseException e) {
+            logger.debug(String.format("Ignoring the unreadable cached response %s: %s", cacheFile.getAbsolutePath(), e.getMessage()));
+        }
+        return Optional.empty();
+    }
+
+    private synchronized void write(final File cacheFile, final CachedResponse cachedResponse) {
+        try {
+            Files.createDirectories(cacheDirectory.toPath());
+            final long previousLength = cacheFile.length();
+            final File temporaryFile = File.createTempFile(cacheFile.getName(), ".tmp", cacheDirectory);
+            Files.write(temporaryFile.toPath(), gson.toJson(cachedResponse).getBytes(StandardCharsets.UTF_8));
+            Files.move(temporaryFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            currentBytes = getCurrentBytes() - previousLength + cacheFile.length();
+            evict();
+        } catch (final IOException e) {
+            // the cache is only an optimization, so failing to write to it must never fail the request
+            logger.debug(String.format("Could not cache the response for %s: %s", cachedResponse.key, e.getMessage()));
+        }
+    }
+
+    private void touch(final File cacheFile) {
+        cacheFile.setLastModified(System.currentTimeMillis());
+    }
+
+    private long getCurrentBytes() {
+        if (currentBytes < 0) {
+            currentBytes = Arrays.stream(listCacheFiles()).mapToLong(File::length).sum();
+        }
+        return currentBytes;
+    }
+
+    private void evict() {
+        if (currentBytes <= maxBytes) {
+            return;
+        }
+        final File[] cacheFiles = listCacheFiles();
+        Arrays.sort(cacheFiles, Comparator.comparingLong(File::lastModified));
+        for (final File cacheFile : cacheFiles) {
+            if (currentBytes <= maxBytes) {
+                break;
+            }
+            final long length = cacheFile.length();
+            if (cacheFile.delete()) {
+                currentBytes -= length;
+            }
+        }
+    }
+
+    private File[] listCacheFiles() {
+        final File[] cacheFiles = cacheDirectory.listFiles((directory, name) -> name.endsWith(CACHE_FILE_EXTENSION));
+        return null == cacheFiles ? new File[0] : cacheFiles;
+    }
+
+    private static class CachedResponse {
+        private String key;
+        private String eTag;
+        private String lastModifiedHeader;
+        private long storedAt;
+        private String json;
+    }
+
+}
@@ -24,10 +24,10 @@
 package com.synopsys.integration.blackduck.service;
 
 import java.io.IOException;
+import java.util.Optional;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
 import com.synopsys.integration.blackduck.api.core.HubResponse;
@@ -35,33 +35,51 @@ import com.synopsys.integration.blackduck.exception.HubIntegrationException;
 import com.synopsys.integration.blackduck.rest.BlackDuckRestConnection;
 import com.synopsys.integration.exception.IntegrationException;
 import com.synopsys.integration.log.IntLogger;
+import com.synopsys.integration.rest.HttpMethod;
 import com.synopsys.integration.rest.request.Request;
 import com.synopsys.integration.rest.request.Response;
 
 public class HubResponseTransformer {
     private final BlackDuckRestConnection restConnection;
-    private final JsonParser jsonParser;
     private final Gson gson;
     private final IntLogger logger;
+    private final Optional<HubResponseCache> hubResponseCache;
 
+    /**
+     * @deprecated responses are handed to Gson as text, so the JsonParser is no longer used - use {@link #HubResponseTransformer(BlackDuckRestConnection, Gson, IntLogger)} instead
+     */
+    @Deprecated
     public HubResponseTransformer(final BlackDuckRestConnection restConnection, final Gson gson, final JsonParser jsonParser, final IntLogger logger) {
+        this(restConnection, gson, logger);
+    }
+
+    public HubResponseTransformer(final BlackDuckRestConnection restConnection, final Gson gson, final IntLogger logger) {
+        this.restConnection = restConnection;
+        this.gson = gson;
+        this.logger = logger;
+        hubResponseCache = Optional.empty();
+    }
+
+    /**
+     * The GET requests for a single response will go through the provided cache if the cache includes their uri or response class.
+     */
+    public HubResponseTransformer(final BlackDuckRestConnection restConnection, final Gson gson, final IntLogger logger, final HubResponseCache hubResponseCache) {
         this.restConnection = restConnection;
-        this.jsonParser = jsonParser;
         this.gson = gson;
         this.logger = logger;
+        this.hubResponseCache = Optional.of(hubResponseCache);
     }
 
+    /**
+     * The json of the returned response is the text exactly as the Hub sent it.
+     */
     public <T extends HubResponse> T getResponse(final Request request, final Class<T> clazz) throws IntegrationException {
+        if (hubResponseCache.isPresent() && (null == request.getMethod() || HttpMethod.GET == request.getMethod()) && hubResponseCache.get().isCached(request.getUri(), clazz)) {
+            return getResponseAs(hubResponseCache.get().getResponseJson(restConnection, request), clazz);
+        }
         try (final Response response = restConnection.executeRequest(request)) {
             final String jsonResponse = response.getContentString();
-            final JsonObject jsonObject;
-            try {
-                jsonObject = jsonParser.parse(jsonResponse).getAsJsonObject();
-            } catch (final JsonSyntaxException e) {
-                logger.error(String.format("Could not parse the provided Json with JsonParser:%s%s", System.lineSeparator(), jsonResponse));
-                throw new HubIntegrationException(e.getMessage(), e);
-            }
-            return getResponseAs(jsonObject, clazz);
+            return getResponseAs(jsonResponse, clazz);
         } catch (final IOException e) {
             throw new HubIntegrationException(e.getMessage(), e);
         }
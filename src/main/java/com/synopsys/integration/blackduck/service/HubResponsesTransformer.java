@@ -24,34 +24,65 @@
 package com.synopsys.integration.blackduck.service;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
-import com.google.gson.JsonSyntaxException;
 import com.synopsys.integration.blackduck.api.core.HubResponse;
 import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.blackduck.exception.HubIntegrationRuntimeException;
 import com.synopsys.integration.blackduck.rest.BlackDuckRestConnection;
 import com.synopsys.integration.blackduck.service.model.PagedRequest;
 import com.synopsys.integration.exception.IntegrationException;
 import com.synopsys.integration.log.IntLogger;
+import com.synopsys.integration.rest.request.Request;
 import com.synopsys.integration.rest.request.Response;
 
 public class HubResponsesTransformer {
     private final BlackDuckRestConnection restConnection;
     private final HubResponseTransformer hubResponseTransformer;
-    private final JsonParser jsonParser;
     private final IntLogger logger;
+    private final Optional<ExecutorService> executorService;
+    private final int maxConcurrentPageRequests;
 
+    /**
+     * @deprecated pages are scanned straight from the response, so the JsonParser is no longer used - use {@link #HubResponsesTransformer(BlackDuckRestConnection, HubResponseTransformer, IntLogger)} instead
+     */
+    @Deprecated
     public HubResponsesTransformer(final BlackDuckRestConnection restConnection, final HubResponseTransformer hubResponseTransformer, final JsonParser jsonParser, final IntLogger logger) {
+        this(restConnection, hubResponseTransformer, logger);
+    }
+
+    public HubResponsesTransformer(final BlackDuckRestConnection restConnection, final HubResponseTransformer hubResponseTransformer, final IntLogger logger) {
+        this.restConnection = restConnection;
+        this.hubResponseTransformer = hubResponseTransformer;
+        this.logger = logger;
+        executorService = Optional.empty();
+        maxConcurrentPageRequests = 1;
+    }
+
+    /**
+     * Once the totalCount is known from the first page, the remaining pages will be requested on the provided executor with at most maxConcurrentPageRequests in flight. Results are always returned in offset order.
+     * Tasks already running on that executor must not page through responses with it, as a bounded executor can then deadlock with every thread waiting on pages queued behind it.
+     */
+    public HubResponsesTransformer(final BlackDuckRestConnection restConnection, final HubResponseTransformer hubResponseTransformer, final IntLogger logger, final ExecutorService executorService, final int maxConcurrentPageRequests) {
         this.restConnection = restConnection;
         this.hubResponseTransformer = hubResponseTransformer;
-        this.jsonParser = jsonParser;
         this.logger = logger;
+        this.executorService = Optional.of(executorService);
+        this.maxConcurrentPageRequests = Math.max(1, maxConcurrentPageRequests);
     }
 
     public <T extends HubResponse> List<T> getResponses(final PagedRequest pagedRequest, final Class<T> clazz) throws IntegrationException {
@@ -64,52 +95,152 @@ public class HubResponsesTransformer {
 
     public <T extends HubResponse> List<T> getResponses(final PagedRequest pagedRequest, final Class<T> clazz, final boolean getAll, final Map<String, Class<? extends T>> typeMap) throws IntegrationException {
         final List<T> allResponses = new LinkedList<>();
-        int totalCount = 0;
         int currentOffset = pagedRequest.getOffset();
-        try (final Response initialResponse = restConnection.executeRequest(pagedRequest.createRequest())) {
-            final String initialJsonResponse = initialResponse.getContentString();
-            final JsonObject initialJsonObject;
-            try {
-                initialJsonObject = jsonParser.parse(initialJsonResponse).getAsJsonObject();
-            } catch (final JsonSyntaxException e) {
-                logger.error(String.format("Could not parse the initial provided Json responses with JsonParser:%s%s", System.lineSeparator(), initialJsonResponse));
-                throw new HubIntegrationException(e.getMessage(), e);
+        final int totalCount = readPage(pagedRequest.createRequest(), clazz, typeMap, allResponses);
+        if (!getAll) {
+            return allResponses;
+        }
+        if (executorService.isPresent() && maxConcurrentPageRequests > 1) {
+            allResponses.addAll(getRemainingResponsesConcurrently(pagedRequest, clazz, typeMap, totalCount));
+            return allResponses;
+        }
+        while (allResponses.size() < totalCount && currentOffset < totalCount) {
+            currentOffset += pagedRequest.getLimit();
+            final PagedRequest offsetPagedRequest = new PagedRequest(pagedRequest.getRequestBuilder(), currentOffset, pagedRequest.getLimit());
+            readPage(offsetPagedRequest.createRequest(), clazz, typeMap, allResponses);
+        }
+        return allResponses;
+
+    }
+
+    /**
+     * Requests a single item to learn how many items the request would page through, without binding any of them.
+     * @return the totalCount reported by the Hub, or -1 if there was none
+     */
+    public int getTotalCount(final PagedRequest pagedRequest) throws IntegrationException {
+        final Request request = new PagedRequest(pagedRequest.getRequestBuilder(), pagedRequest.getOffset(), 1).createRequest();
+        try (final Response response = restConnection.executeRequest(request); final Reader reader = new InputStreamReader(response.getContent(), StandardCharsets.UTF_8)) {
+            final JsonItemsScanner jsonItemsScanner = new JsonItemsScanner(reader);
+            return jsonItemsScanner.scan((itemJson, type) -> {
+            });
+        } catch (final IOException e) {
+            throw new HubIntegrationException(e.getMessage(), e);
+        }
+    }
+
+    private <T extends HubResponse> List<T> getRemainingResponsesConcurrently(final PagedRequest pagedRequest, final Class<T> clazz, final Map<String, Class<? extends T>> typeMap, final int totalCount) throws IntegrationException {
+        final Iterator<Callable<List<T>>> pageTasks = new Iterator<Callable<List<T>>>() {
+            private int nextOffset = pagedRequest.getOffset() + pagedRequest.getLimit();
+
+            @Override
+            public boolean hasNext() {
+                return nextOffset < totalCount;
             }
-            if (typeMap != null) {
-                allResponses.addAll(getResponses(initialJsonObject, clazz, typeMap));
-            } else {
-                allResponses.addAll(getResponses(initialJsonObject, clazz));
+
+            @Override
+            public Callable<List<T>> next() {
+                // the requests are created on the calling thread since they all share the same Request.Builder
+                final Request request = new PagedRequest(pagedRequest.getRequestBuilder(), nextOffset, pagedRequest.getLimit()).createRequest();
+                nextOffset += pagedRequest.getLimit();
+                return () -> getPageResponses(request, clazz, typeMap);
             }
-            if (getAll) {
-                totalCount = initialJsonObject.get("totalCount").getAsInt();
-            } else {
-                return allResponses;
+        };
+
+        final List<T> remainingResponses = new LinkedList<>();
+        BoundedTaskRunner.callAll(executorService, maxConcurrentPageRequests, pageTasks, "remaining pages").forEach(remainingResponses::addAll);
+        return remainingResponses;
+    }
+
+    private <T extends HubResponse> List<T> getPageResponses(final PagedRequest pagedRequest, final Class<T> clazz, final Map<String, Class<? extends T>> typeMap) throws IntegrationException {
+        return getPageResponses(pagedRequest.createRequest(), clazz, typeMap);
+    }
+
+    private <T extends HubResponse> List<T> getPageResponses(final Request request, final Class<T> clazz, final Map<String, Class<? extends T>> typeMap) throws IntegrationException {
+        final List<T> pageResponses = new LinkedList<>();
+        readPage(request, clazz, typeMap, pageResponses);
+        return pageResponses;
+    }
+
+    /**
+     * Adds the items of a single page to pageResponses. The page is decoded straight from the response stream and each item keeps its own raw json text, so neither the whole page nor a json tree of it is ever held.
+     * @return the totalCount reported by the page, or -1 if there was none
+     */
+    private <T extends HubResponse> int readPage(final Request request, final Class<T> clazz, final Map<String, Class<? extends T>> typeMap, final List<T> pageResponses) throws IntegrationException {
+        try (final Response response = restConnection.executeRequest(request); final Reader reader = new InputStreamReader(response.getContent(), StandardCharsets.UTF_8)) {
+            final JsonItemsScanner jsonItemsScanner = new JsonItemsScanner(reader);
+            try {
+                return jsonItemsScanner.scan((itemJson, type) -> pageResponses.add(getResponseAs(itemJson, type, clazz, typeMap)));
+            } catch (final IntegrationException e) {
+                logger.error(String.format("Could not parse the provided Json responses from %s", request.getUri()));
+                throw e;
             }
-            while (allResponses.size() < totalCount && currentOffset < totalCount) {
+        } catch (final IOException e) {
+            throw new HubIntegrationException(e.getMessage(), e);
+        }
+    }
+
+    private <T extends HubResponse> T getResponseAs(final String itemJson, final String type, final Class<T> clazz, final Map<String, Class<? extends T>> typeMap) throws HubIntegrationException {
+        Class<? extends T> actualClass = clazz;
+        if (typeMap != null && type != null && typeMap.containsKey(type)) {
+            actualClass = typeMap.get(type);
+        }
+        return hubResponseTransformer.getResponseAs(itemJson, actualClass);
+    }
+
+    /**
+     * The first page is requested immediately, every following page only when the returned Iterator needs it. Items are released as they are handed out, so only a single page is ever held. Any failure fetching a later page will be
+     * thrown from the Iterator as a HubIntegrationRuntimeException.
+     */
+    public <T extends HubResponse> Iterator<T> getResponsesIterator(final PagedRequest pagedRequest, final Class<T> clazz, final Map<String, Class<? extends T>> typeMap) throws IntegrationException {
+        final List<T> initialResponses = new LinkedList<>();
+        final int totalCount = readPage(pagedRequest.createRequest(), clazz, typeMap, initialResponses);
+        return new PagedResponsesIterator<>(pagedRequest, clazz, typeMap, totalCount, initialResponses);
+    }
+
+    private class PagedResponsesIterator<T extends HubResponse> implements Iterator<T> {
+        private final PagedRequest pagedRequest;
+        private final Class<T> clazz;
+        private final Map<String, Class<? extends T>> typeMap;
+        private final int totalCount;
+        private int currentOffset;
+        private Iterator<T> currentPage;
+
+        public PagedResponsesIterator(final PagedRequest pagedRequest, final Class<T> clazz, final Map<String, Class<? extends T>> typeMap, final int totalCount, final List<T> initialResponses) {
+            this.pagedRequest = pagedRequest;
+            this.clazz = clazz;
+            this.typeMap = typeMap;
+            this.totalCount = totalCount;
+            currentOffset = pagedRequest.getOffset();
+            currentPage = initialResponses.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!currentPage.hasNext()) {
                 currentOffset += pagedRequest.getLimit();
+                if (currentOffset >= totalCount) {
+                    return false;
+                }
                 final PagedRequest offsetPagedRequest = new PagedRequest(pagedRequest.getRequestBuilder(), currentOffset, pagedRequest.getLimit());
-                try (final Response response = restConnection.executeRequest(offsetPagedRequest.createRequest())) {
-                    final String jsonResponse = response.getContentString();
-                    final JsonObject jsonObject;
-                    try {
-                        jsonObject = jsonParser.parse(jsonResponse).getAsJsonObject();
-                    } catch (final JsonSyntaxException e) {
-                        logger.error(String.format("Could not parse the provided Json responses with JsonParser:%s%s", System.lineSeparator(), jsonResponse));
-                        throw new HubIntegrationException(e.getMessage(), e);
-                    }
-                    if (typeMap != null) {
-                        allResponses.addAll(getResponses(jsonObject, clazz, typeMap));
-                    } else {
-                        allResponses.addAll(getResponses(jsonObject, clazz));
-                    }
-                } catch (final IOException e) {
-                    throw new HubIntegrationException(e);
+                try {
+                    currentPage = getPageResponses(offsetPagedRequest, clazz, typeMap).iterator();
+                } catch (final IntegrationException e) {
+                    throw new HubIntegrationRuntimeException(e.getMessage(), e);
                 }
             }
-        } catch (final IOException e) {
-            throw new HubIntegrationException(e.getMessage(), e);
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final T item = currentPage.next();
+            // the page is a LinkedList, so removing what was handed out lets it be collected as soon as the consumer is done with it
+            currentPage.remove();
+            return item;
         }
-        return allResponses;
 
     }
 
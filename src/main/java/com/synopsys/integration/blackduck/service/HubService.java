@@ -27,8 +27,15 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -68,13 +75,41 @@ public class HubService {
     private final Gson gson;
 
     public HubService(final IntLogger logger, final BlackDuckRestConnection restConnection, final Gson gson, final JsonParser jsonParser) {
+        this(logger, restConnection, gson, jsonParser, Optional.empty(), 1, Optional.empty());
+    }
+
+    /**
+     * Multi-page responses will fetch the pages after the first one on the provided executor, with at most maxConcurrentPageRequests in flight at any time. It is up to the user of the HubService to shutdown the executor.
+     * Do not share a bounded executor with tasks that themselves call getAllResponses on this HubService, as those tasks can end up waiting on pages that no free thread is left to fetch.
+     */
+    public HubService(final IntLogger logger, final BlackDuckRestConnection restConnection, final Gson gson, final JsonParser jsonParser, final ExecutorService executorService, final int maxConcurrentPageRequests) {
+        this(logger, restConnection, gson, jsonParser, Optional.of(executorService), maxConcurrentPageRequests, Optional.empty());
+    }
+
+    /**
+     * Single responses will be retrieved through the provided cache when it includes their uri or response class.
+     */
+    public HubService(final IntLogger logger, final BlackDuckRestConnection restConnection, final Gson gson, final JsonParser jsonParser, final HubResponseCache hubResponseCache) {
+        this(logger, restConnection, gson, jsonParser, Optional.empty(), 1, Optional.of(hubResponseCache));
+    }
+
+    HubService(final IntLogger logger, final BlackDuckRestConnection restConnection, final Gson gson, final JsonParser jsonParser, final Optional<ExecutorService> executorService, final int maxConcurrentPageRequests,
+            final Optional<HubResponseCache> hubResponseCache) {
         this.restConnection = restConnection;
         hubBaseUrl = restConnection.getBaseUrl();
         this.jsonParser = jsonParser;
         this.gson = gson;
         metaHandler = new MetaHandler(logger);
-        hubResponseTransformer = new HubResponseTransformer(restConnection, gson, jsonParser, logger);
-        hubResponsesTransformer = new HubResponsesTransformer(restConnection, hubResponseTransformer, jsonParser, logger);
+        if (hubResponseCache.isPresent()) {
+            hubResponseTransformer = new HubResponseTransformer(restConnection, gson, logger, hubResponseCache.get());
+        } else {
+            hubResponseTransformer = new HubResponseTransformer(restConnection, gson, logger);
+        }
+        if (executorService.isPresent()) {
+            hubResponsesTransformer = new HubResponsesTransformer(restConnection, hubResponseTransformer, logger, executorService.get(), maxConcurrentPageRequests);
+        } else {
+            hubResponsesTransformer = new HubResponsesTransformer(restConnection, hubResponseTransformer, logger);
+        }
     }
 
     public BlackDuckRestConnection getRestConnection() {
@@ -161,6 +196,12 @@ public class HubService {
         return hubResponsesTransformer.getResponses(new PagedRequest(requestBuilder), hubPathMultipleResponses.responseClass, getAll, typeMap);
     }
 
+    public <T extends HubResponse> int getTotalCount(final HubPathMultipleResponses<T> hubPathMultipleResponses, final Request.Builder requestBuilder) throws IntegrationException {
+        final String uri = pieceTogetherUri(hubBaseUrl, hubPathMultipleResponses.hubPath.getPath());
+        requestBuilder.uri(uri);
+        return hubResponsesTransformer.getTotalCount(new PagedRequest(requestBuilder));
+    }
+
     public <T extends HubResponse> T getResponse(final HubPathSingleResponse<T> hubPathSingleResponse) throws IntegrationException {
         final String uri = pieceTogetherUri(hubBaseUrl, hubPathSingleResponse.hubPath.getPath());
         final Request request = RequestFactory.createCommonGetRequest(uri);
@@ -244,6 +285,76 @@ public class HubService {
         return hubResponseTransformer.getResponse(request, uriSingleResponse.responseClass);
     }
 
+    // ------------------------------------------------
+    // lazily iterating/streaming multiple responses - only one page is held at a time
+    // ------------------------------------------------
+    public <T extends HubResponse> Iterator<T> iterateResponses(final HubPathMultipleResponses<T> hubPathMultipleResponses) throws IntegrationException {
+        final String uri = pieceTogetherUri(hubBaseUrl, hubPathMultipleResponses.hubPath.getPath());
+        final Request.Builder requestBuilder = RequestFactory.createCommonGetRequestBuilder(uri);
+        return hubResponsesTransformer.getResponsesIterator(new PagedRequest(requestBuilder), hubPathMultipleResponses.responseClass, null);
+    }
+
+    public <T extends HubResponse> Iterator<T> iterateResponses(final HubPathMultipleResponses<T> hubPathMultipleResponses, final Request.Builder requestBuilder) throws IntegrationException {
+        final String uri = pieceTogetherUri(hubBaseUrl, hubPathMultipleResponses.hubPath.getPath());
+        requestBuilder.uri(uri);
+        return hubResponsesTransformer.getResponsesIterator(new PagedRequest(requestBuilder), hubPathMultipleResponses.responseClass, null);
+    }
+
+    public <T extends HubResponse> Iterator<T> iterateResponses(final HubView hubView, final LinkMultipleResponses<T> linkMultipleResponses) throws IntegrationException {
+        final String uri = metaHandler.getFirstLinkSafely(hubView, linkMultipleResponses.link);
+        if (StringUtils.isBlank(uri)) {
+            return Collections.emptyIterator();
+        }
+        final Request.Builder requestBuilder = RequestFactory.createCommonGetRequestBuilder(uri);
+        return hubResponsesTransformer.getResponsesIterator(new PagedRequest(requestBuilder), linkMultipleResponses.responseClass, null);
+    }
+
+    public <T extends HubResponse> Iterator<T> iterateResponses(final HubView hubView, final LinkMultipleResponses<T> linkMultipleResponses, final Request.Builder requestBuilder) throws IntegrationException {
+        final String uri = metaHandler.getFirstLinkSafely(hubView, linkMultipleResponses.link);
+        if (StringUtils.isBlank(uri)) {
+            return Collections.emptyIterator();
+        }
+        requestBuilder.uri(uri);
+        return hubResponsesTransformer.getResponsesIterator(new PagedRequest(requestBuilder), linkMultipleResponses.responseClass, null);
+    }
+
+    public <T extends HubResponse> Iterator<T> iterateResponses(final String uri, final Class<T> responseClass) throws IntegrationException {
+        final Request.Builder requestBuilder = RequestFactory.createCommonGetRequestBuilder(uri);
+        return iterateResponses(requestBuilder, responseClass);
+    }
+
+    public <T extends HubResponse> Iterator<T> iterateResponses(final Request.Builder requestBuilder, final Class<T> responseClass) throws IntegrationException {
+        return hubResponsesTransformer.getResponsesIterator(new PagedRequest(requestBuilder), responseClass, null);
+    }
+
+    public <T extends HubResponse> Stream<T> streamResponses(final HubPathMultipleResponses<T> hubPathMultipleResponses) throws IntegrationException {
+        return toStream(iterateResponses(hubPathMultipleResponses));
+    }
+
+    public <T extends HubResponse> Stream<T> streamResponses(final HubPathMultipleResponses<T> hubPathMultipleResponses, final Request.Builder requestBuilder) throws IntegrationException {
+        return toStream(iterateResponses(hubPathMultipleResponses, requestBuilder));
+    }
+
+    public <T extends HubResponse> Stream<T> streamResponses(final HubView hubView, final LinkMultipleResponses<T> linkMultipleResponses) throws IntegrationException {
+        return toStream(iterateResponses(hubView, linkMultipleResponses));
+    }
+
+    public <T extends HubResponse> Stream<T> streamResponses(final HubView hubView, final LinkMultipleResponses<T> linkMultipleResponses, final Request.Builder requestBuilder) throws IntegrationException {
+        return toStream(iterateResponses(hubView, linkMultipleResponses, requestBuilder));
+    }
+
+    public <T extends HubResponse> Stream<T> streamResponses(final String uri, final Class<T> responseClass) throws IntegrationException {
+        return toStream(iterateResponses(uri, responseClass));
+    }
+
+    public <T extends HubResponse> Stream<T> streamResponses(final Request.Builder requestBuilder, final Class<T> responseClass) throws IntegrationException {
+        return toStream(iterateResponses(requestBuilder, responseClass));
+    }
+
+    private <T extends HubResponse> Stream<T> toStream(final Iterator<T> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
     // ------------------------------------------------
     // handling generic delete
     // ------------------------------------------------
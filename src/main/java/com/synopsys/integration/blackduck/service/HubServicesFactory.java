@@ -25,7 +25,10 @@ package com.synopsys.integration.blackduck.service;
 
 import java.net.URL;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.apache.commons.lang3.builder.RecursiveToStringStyle;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
@@ -35,6 +38,7 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParser;
 import com.synopsys.integration.blackduck.codelocation.CodeLocationCreationService;
+import com.synopsys.integration.blackduck.codelocation.CodeLocationWaitCoordinator;
 import com.synopsys.integration.blackduck.notification.content.detail.NotificationContentDetailFactory;
 import com.synopsys.integration.blackduck.phonehome.BlackDuckPhoneHomeCallable;
 import com.synopsys.integration.blackduck.rest.BlackDuckRestConnection;
@@ -55,6 +59,7 @@ public class HubServicesFactory {
     private final JsonParser jsonParser;
     private final BlackDuckRestConnection restConnection;
     private final IntLogger logger;
+    private final Optional<HubResponseCache> hubResponseCache;
 
     public static Gson createDefaultGson() {
         return createDefaultGsonBuilder().create();
@@ -72,12 +77,25 @@ public class HubServicesFactory {
     //
     // The 'create' methods are alphabetical by return type - please keep this pattern consistent.
     public HubServicesFactory(final Gson gson, final JsonParser jsonParser, final BlackDuckRestConnection restConnection, final IntLogger logger) {
+        this(gson, jsonParser, restConnection, logger, Optional.empty());
+    }
+
+    /**
+     * Every HubService created by this factory will retrieve single responses through the provided cache when it includes their uri or response class. The cache must only be used with connections
+     * that authenticate as the same user, see {@link HubResponseCache}.
+     */
+    public HubServicesFactory(final Gson gson, final JsonParser jsonParser, final BlackDuckRestConnection restConnection, final IntLogger logger, final HubResponseCache hubResponseCache) {
+        this(gson, jsonParser, restConnection, logger, Optional.of(hubResponseCache));
+    }
+
+    private HubServicesFactory(final Gson gson, final JsonParser jsonParser, final BlackDuckRestConnection restConnection, final IntLogger logger, final Optional<HubResponseCache> hubResponseCache) {
         intEnvironmentVariables = new IntEnvironmentVariables();
 
         this.gson = gson;
         this.jsonParser = jsonParser;
         this.restConnection = restConnection;
         this.logger = logger;
+        this.hubResponseCache = hubResponseCache;
     }
 
     public BinaryScannerService createBinaryScannerService() {
@@ -92,14 +110,31 @@ public class HubServicesFactory {
         return new CodeLocationCreationService(hubService, logger, codeLocationService, notificationService);
     }
 
+    public CodeLocationWaitCoordinator createCodeLocationWaitCoordinator(final ScheduledExecutorService scheduler) {
+        return new CodeLocationWaitCoordinator(logger, createCodeLocationCreationService(), scheduler);
+    }
+
     public CodeLocationService createCodeLocationService() {
         return new CodeLocationService(createHubService(), logger);
     }
 
+    public CodeLocationService createCodeLocationService(final long codeLocationUrlCacheTimeToLiveInMilliseconds) {
+        return new CodeLocationService(createHubService(), logger, codeLocationUrlCacheTimeToLiveInMilliseconds);
+    }
+
+    public CodeLocationService createCodeLocationService(final long codeLocationUrlCacheTimeToLiveInMilliseconds, final ExecutorService executorService, final int maxConcurrentRequests,
+            final double maxRequestsPerSecond) {
+        return new CodeLocationService(createHubService(), logger, codeLocationUrlCacheTimeToLiveInMilliseconds, executorService, maxConcurrentRequests, maxRequestsPerSecond);
+    }
+
     public CommonNotificationService createCommonNotificationService(final NotificationContentDetailFactory notificationContentDetailFactory, final boolean oldestFirst) {
         return new CommonNotificationService(notificationContentDetailFactory, oldestFirst);
     }
 
+    public CommonNotificationService createCommonNotificationService(final NotificationContentDetailFactory notificationContentDetailFactory, final boolean oldestFirst, final ForkJoinPool forkJoinPool) {
+        return new CommonNotificationService(notificationContentDetailFactory, oldestFirst, forkJoinPool);
+    }
+
     public ComponentService createComponentService() {
         return new ComponentService(createHubService(), logger);
     }
@@ -109,7 +144,11 @@ public class HubServicesFactory {
     }
 
     public HubService createHubService() {
-        return new HubService(logger, restConnection, gson, jsonParser);
+        return new HubService(logger, restConnection, gson, jsonParser, Optional.empty(), 1, hubResponseCache);
+    }
+
+    public HubService createHubService(final ExecutorService executorService, final int maxConcurrentPageRequests) {
+        return new HubService(logger, restConnection, gson, jsonParser, Optional.of(executorService), maxConcurrentPageRequests, hubResponseCache);
     }
 
     public HubBucketService createHubBucketService() {
@@ -136,6 +175,10 @@ public class HubServicesFactory {
         return new NotificationService(createHubService(), logger);
     }
 
+    public NotificationService createNotificationService(final ExecutorService executorService, final int maxConcurrentRequests) {
+        return new NotificationService(createHubService(), logger, executorService, maxConcurrentRequests);
+    }
+
     public PhoneHomeService createPhoneHomeService(final ExecutorService executorService) {
         return new PhoneHomeService(logger, executorService);
     }
@@ -170,10 +213,21 @@ public class HubServicesFactory {
         return new ProjectService(hubService, logger, projectGetService, projectUpdateService, createComponentService());
     }
 
+    public ProjectService createProjectService(final ExecutorService executorService, final int maxConcurrentRequests) {
+        final HubService hubService = createHubService();
+        final ProjectGetService projectGetService = new ProjectGetService(hubService, logger);
+        final ProjectUpdateService projectUpdateService = new ProjectUpdateService(hubService, logger, projectGetService);
+        return new ProjectService(hubService, logger, projectGetService, projectUpdateService, createComponentService(), executorService, maxConcurrentRequests);
+    }
+
     public ReportService createReportService(final long timeoutInMilliseconds) throws IntegrationException {
         return new ReportService(createHubService(), logger, createProjectService(), createIntegrationEscapeUtil(), timeoutInMilliseconds);
     }
 
+    public ReportService createReportService(final long timeoutInMilliseconds, final ExecutorService executorService, final int maxConcurrentRequests) throws IntegrationException {
+        return new ReportService(createHubService(), logger, createProjectService(), createIntegrationEscapeUtil(), timeoutInMilliseconds, executorService, maxConcurrentRequests);
+    }
+
     public UserGroupService createUserGroupService() {
         return new UserGroupService(createHubService(), logger);
     }
@@ -0,0 +1,312 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import com.google.gson.stream.JsonReader;
+
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.exception.IntegrationException;
+
+/**
+ * Walks a paged Hub response envelope ({"totalCount":..., "items":[...], ...}) and hands the raw, untouched text of every element of 'items' to an ItemHandler, along with the item's top-level 'type' (unescaped) if it has one. Nothing is parsed into a
+ * tree, the item text never has to be re-serialized, and the envelope is consumed from the Reader as it arrives, so the page is never held as a whole. A scanner instance is good for a single envelope.
+ */
+public class JsonItemsScanner {
+    public static final String ITEMS_KEY = "items";
+    public static final String TOTAL_COUNT_KEY = "totalCount";
+    public static final String TYPE_KEY = "type";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+    private long charactersConsumed = 0;
+
+    public JsonItemsScanner(final Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return the totalCount of the envelope, or -1 if the envelope did not contain one
+     */
+    public int scan(final ItemHandler itemHandler) throws IOException, IntegrationException {
+        int totalCount = -1;
+        expect('{');
+        if (peekNonWhitespace() == '}') {
+            read();
+            return totalCount;
+        }
+        while (true) {
+            expect('"');
+            final String key = readKey();
+            expect(':');
+            if (ITEMS_KEY.equals(key) && peekNonWhitespace() == '[') {
+                readItems(itemHandler);
+            } else if (TOTAL_COUNT_KEY.equals(key)) {
+                peekNonWhitespace();
+                final StringBuilder totalCountValue = new StringBuilder();
+                readValue(totalCountValue);
+                try {
+                    totalCount = Integer.parseInt(totalCountValue.toString());
+                } catch (final NumberFormatException e) {
+                    throw new HubIntegrationException(String.format("The %s '%s' is not a valid number.", TOTAL_COUNT_KEY, totalCountValue), e);
+                }
+            } else {
+                readValue(null);
+            }
+            final int next = nextNonWhitespace();
+            if ('}' == next) {
+                return totalCount;
+            } else if (',' != next) {
+                throw syntaxError("',' or '}'", next);
+            }
+        }
+    }
+
+    private void readItems(final ItemHandler itemHandler) throws IOException, IntegrationException {
+        expect('[');
+        if (peekNonWhitespace() == ']') {
+            read();
+            return;
+        }
+        while (true) {
+            final StringBuilder item = new StringBuilder();
+            final String type;
+            if (peekNonWhitespace() == '{') {
+                type = readObjectItem(item);
+            } else {
+                readValue(item);
+                type = null;
+            }
+            itemHandler.handle(item.toString(), type);
+            final int next = nextNonWhitespace();
+            if (']' == next) {
+                return;
+            } else if (',' != next) {
+                throw syntaxError("',' or ']'", next);
+            }
+        }
+    }
+
+    /**
+     * Reads an object item member by member, only so that the value of its top-level 'type' can be picked up along the way.
+     * @return the item's type, or null if it did not have a String type
+     */
+    private String readObjectItem(final StringBuilder capture) throws IOException, HubIntegrationException {
+        String type = null;
+        expect('{', capture);
+        if (peekNonWhitespace(capture) == '}') {
+            append(capture, read());
+            return type;
+        }
+        while (true) {
+            expect('"', capture);
+            final String key = readKey(capture);
+            expect(':', capture);
+            if (TYPE_KEY.equals(key) && peekNonWhitespace(capture) == '"') {
+                final int typeStart = capture.length();
+                readValue(capture);
+                type = unescape(capture.substring(typeStart));
+            } else {
+                readValue(capture);
+            }
+            final int next = nextNonWhitespace(capture);
+            append(capture, next);
+            if ('}' == next) {
+                return type;
+            } else if (',' != next) {
+                throw syntaxError("',' or '}'", next);
+            }
+        }
+    }
+
+    /**
+     * Reads the next complete value, appending its exact text to capture. A null capture will just skip the value.
+     */
+    private void readValue(final StringBuilder capture) throws IOException, HubIntegrationException {
+        final int first = nextNonWhitespace(capture);
+        append(capture, first);
+        if ('"' == first) {
+            readStringRemainder(capture);
+        } else if ('{' == first || '[' == first) {
+            int depth = 1;
+            while (depth > 0) {
+                final int next = readRequired();
+                append(capture, next);
+                if ('"' == next) {
+                    readStringRemainder(capture);
+                } else if ('{' == next || '[' == next) {
+                    depth++;
+                } else if ('}' == next || ']' == next) {
+                    depth--;
+                }
+            }
+        } else if (-1 == first || ',' == first || '}' == first || ']' == first || ':' == first) {
+            throw syntaxError("a value", first);
+        } else {
+            // numbers, true, false, null
+            int next = peek();
+            while (-1 != next && ',' != next && '}' != next && ']' != next && !Character.isWhitespace(next)) {
+                append(capture, read());
+                next = peek();
+            }
+        }
+    }
+
+    /**
+     * @param quotedString the raw text of a Json String, including its quotes
+     */
+    private String unescape(final String quotedString) throws IOException {
+        if (quotedString.indexOf('\\') < 0) {
+            return quotedString.substring(1, quotedString.length() - 1);
+        }
+        try (final JsonReader jsonReader = new JsonReader(new StringReader(quotedString))) {
+            jsonReader.setLenient(true);
+            return jsonReader.nextString();
+        }
+    }
+
+    private void readStringRemainder(final StringBuilder capture) throws IOException, HubIntegrationException {
+        while (true) {
+            final int next = readRequired();
+            append(capture, next);
+            if ('\\' == next) {
+                append(capture, readRequired());
+            } else if ('"' == next) {
+                return;
+            }
+        }
+    }
+
+    private String readKey() throws IOException, HubIntegrationException {
+        return readKey(null);
+    }
+
+    private String readKey(final StringBuilder capture) throws IOException, HubIntegrationException {
+        final StringBuilder key = new StringBuilder();
+        readStringRemainder(key);
+        if (null != capture) {
+            capture.append(key);
+        }
+        // drop the closing quote
+        key.setLength(key.length() - 1);
+        return key.toString();
+    }
+
+    private void append(final StringBuilder capture, final int character) {
+        if (null != capture) {
+            capture.append((char) character);
+        }
+    }
+
+    private void expect(final char expected) throws IOException, HubIntegrationException {
+        expect(expected, null);
+    }
+
+    private void expect(final char expected, final StringBuilder capture) throws IOException, HubIntegrationException {
+        final int next = nextNonWhitespace(capture);
+        if (expected != next) {
+            throw syntaxError("'" + expected + "'", next);
+        }
+        append(capture, next);
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        return nextNonWhitespace(null);
+    }
+
+    /**
+     * Any whitespace skipped is still appended to capture, but the returned character is not.
+     */
+    private int nextNonWhitespace(final StringBuilder capture) throws IOException {
+        peekNonWhitespace(capture);
+        return read();
+    }
+
+    private int peekNonWhitespace() throws IOException {
+        return peekNonWhitespace(null);
+    }
+
+    private int peekNonWhitespace(final StringBuilder capture) throws IOException {
+        int next = peek();
+        while (-1 != next && Character.isWhitespace(next)) {
+            append(capture, read());
+            next = peek();
+        }
+        return next;
+    }
+
+    private int readRequired() throws IOException, HubIntegrationException {
+        final int next = read();
+        if (-1 == next) {
+            throw syntaxError("more content", next);
+        }
+        return next;
+    }
+
+    private int read() throws IOException {
+        if (!fillBuffer()) {
+            return -1;
+        }
+        charactersConsumed++;
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (!fillBuffer()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fillBuffer() throws IOException {
+        while (position >= limit) {
+            final int charactersRead = reader.read(buffer, 0, buffer.length);
+            if (-1 == charactersRead) {
+                return false;
+            }
+            position = 0;
+            limit = charactersRead;
+        }
+        return true;
+    }
+
+    private HubIntegrationException syntaxError(final String expected, final int found) {
+        final String foundDescription = -1 == found ? "the end of the content" : "'" + (char) found + "'";
+        return new HubIntegrationException(String.format("Could not parse the paged Json response: expected %s but found %s at character %d.", expected, foundDescription, charactersConsumed));
+    }
+
+    @FunctionalInterface
+    public interface ItemHandler {
+        void handle(String itemJson, String type) throws IntegrationException;
+
+    }
+
+}
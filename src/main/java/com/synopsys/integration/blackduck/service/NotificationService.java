@@ -24,9 +24,17 @@
 package com.synopsys.integration.blackduck.service;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -43,8 +51,25 @@ import com.synopsys.integration.rest.RestConstants;
 import com.synopsys.integration.rest.request.Request;
 
 public class NotificationService extends DataService {
+    public static final int DEFAULT_MAX_NOTIFICATIONS_PER_WINDOW = 1000;
+
+    private final Optional<ExecutorService> executorService;
+    private final int maxConcurrentRequests;
+
     public NotificationService(final HubService hubService, final IntLogger logger) {
         super(hubService, logger);
+        executorService = Optional.empty();
+        maxConcurrentRequests = 1;
+    }
+
+    /**
+     * The count probes and the date windows of the windowed retrieval methods will be requested on the provided executor, with at most maxConcurrentRequests of them in flight at any time. It is up
+     * to the user of the NotificationService to shutdown the executor.
+     */
+    public NotificationService(final HubService hubService, final IntLogger logger, final ExecutorService executorService, final int maxConcurrentRequests) {
+        super(hubService, logger);
+        this.executorService = Optional.of(executorService);
+        this.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
     }
 
     public List<NotificationView> getAllNotifications(final Date startDate, final Date endDate) throws IntegrationException {
@@ -79,6 +104,44 @@ public class NotificationService extends DataService {
         return allUserNotificationItems;
     }
 
+    public List<NotificationView> getAllNotificationsByWindow(final Date startDate, final Date endDate) throws IntegrationException {
+        return getFilteredNotificationsByWindow(startDate, endDate, getAllKnownNotificationTypes(), DEFAULT_MAX_NOTIFICATIONS_PER_WINDOW);
+    }
+
+    public List<NotificationView> getAllNotificationsByWindow(final Date startDate, final Date endDate, final int maxNotificationsPerWindow) throws IntegrationException {
+        return getFilteredNotificationsByWindow(startDate, endDate, getAllKnownNotificationTypes(), maxNotificationsPerWindow);
+    }
+
+    /**
+     * Splits [startDate, endDate] into date windows holding at most maxNotificationsPerWindow notifications, halving any window whose limit=1 count probe reports more, and then retrieves every window on its own. With an
+     * ExecutorService the probes of each round and the windows themselves are requested concurrently, up to maxConcurrentRequests at a time.
+     * @return The same notifications as getFilteredNotifications, most recent first, with any notification on the boundary of two windows only included once.
+     */
+    public List<NotificationView> getFilteredNotificationsByWindow(final Date startDate, final Date endDate, final List<String> notificationTypesToInclude, final int maxNotificationsPerWindow) throws IntegrationException {
+        final List<NotificationWindow> windows = splitIntoWindows(new NotificationWindow(startDate, endDate), notificationTypesToInclude, Math.max(1, maxNotificationsPerWindow));
+        logger.debug(String.format("Retrieving the notifications in %d date windows", windows.size()));
+
+        final List<Callable<List<NotificationView>>> windowRetrievals = new ArrayList<>(windows.size());
+        for (final NotificationWindow window : windows) {
+            windowRetrievals.add(() -> getFilteredNotifications(window.startDate, window.endDate, notificationTypesToInclude));
+        }
+        final List<List<NotificationView>> windowNotifications = BoundedTaskRunner.callAll(executorService, maxConcurrentRequests, windowRetrievals, "notification windows");
+
+        final List<NotificationView> allNotificationItems = new ArrayList<>();
+        final Set<String> hrefs = new HashSet<>();
+        for (final List<NotificationView> notifications : windowNotifications) {
+            for (final NotificationView notification : notifications) {
+                if (null == notification._meta || null == notification._meta.href || hrefs.add(notification._meta.href)) {
+                    allNotificationItems.add(notification);
+                }
+            }
+        }
+        // the windows are newest first and the Hub returns each window newest first, so the list is normally already in order - the stable sort only
+        // guards against a window returned out of order, and on already ordered runs it costs a single linear pass
+        allNotificationItems.sort(Comparator.comparing((NotificationView notification) -> notification.createdAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        return allNotificationItems;
+    }
+
     /**
      * @return The java.util.Date of the most recent notification. If there are no notifications, the current date will be returned. This can set an initial start time window for all future notifications.
      * @throws IntegrationException
@@ -94,6 +157,37 @@ public class NotificationService extends DataService {
         }
     }
 
+    private List<NotificationWindow> splitIntoWindows(final NotificationWindow initialWindow, final List<String> notificationTypesToInclude, final int maxNotificationsPerWindow) throws IntegrationException {
+        final List<NotificationWindow> windows = new ArrayList<>();
+        List<NotificationWindow> windowsToProbe = Collections.singletonList(initialWindow);
+        while (!windowsToProbe.isEmpty()) {
+            final List<Callable<Integer>> countProbes = new ArrayList<>(windowsToProbe.size());
+            for (final NotificationWindow window : windowsToProbe) {
+                countProbes.add(() -> hubService.getTotalCount(ApiDiscovery.NOTIFICATIONS_LINK_RESPONSE, createNotificationRequestBuilder(window.startDate, window.endDate, notificationTypesToInclude)));
+            }
+            final List<Integer> counts = BoundedTaskRunner.callAll(executorService, maxConcurrentRequests, countProbes, "notification counts");
+
+            final List<NotificationWindow> windowsToSplit = new ArrayList<>();
+            for (int i = 0; i < windowsToProbe.size(); i++) {
+                final NotificationWindow window = windowsToProbe.get(i);
+                final int count = counts.get(i);
+                // a missing totalCount (-1) can't be split on, so that window is simply retrieved as it is
+                if (count > maxNotificationsPerWindow && window.canSplit()) {
+                    windowsToSplit.add(window);
+                } else if (0 != count) {
+                    windows.add(window);
+                }
+            }
+
+            windowsToProbe = new ArrayList<>(windowsToSplit.size() * 2);
+            for (final NotificationWindow window : windowsToSplit) {
+                windowsToProbe.addAll(window.split());
+            }
+        }
+        windows.sort(Comparator.comparing((NotificationWindow window) -> window.startDate).reversed());
+        return windows;
+    }
+
     private List<String> getAllKnownNotificationTypes() {
         final List<String> allKnownTypes = Stream.of(NotificationType.values()).map(Enum::name).collect(Collectors.toList());
         return allKnownTypes;
@@ -120,4 +214,26 @@ public class NotificationService extends DataService {
         return requestBuilder;
     }
 
+    private static class NotificationWindow {
+        private final Date startDate;
+        private final Date endDate;
+
+        public NotificationWindow(final Date startDate, final Date endDate) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        public boolean canSplit() {
+            return endDate.getTime() - startDate.getTime() > 1;
+        }
+
+        public List<NotificationWindow> split() {
+            final Date middleDate = new Date(startDate.getTime() + (endDate.getTime() - startDate.getTime()) / 2);
+            final List<NotificationWindow> halves = new ArrayList<>(2);
+            halves.add(new NotificationWindow(startDate, middleDate));
+            halves.add(new NotificationWindow(middleDate, endDate));
+            return halves;
+        }
+    }
+
 }
@@ -26,10 +26,16 @@ package com.synopsys.integration.blackduck.service;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -63,12 +69,29 @@ public class ProjectService extends DataService {
     private final ProjectGetService projectGetService;
     private final ProjectUpdateService projectUpdateService;
     private final ComponentService componentDataService;
+    private final Optional<ExecutorService> executorService;
+    private final int maxConcurrentRequests;
 
     public ProjectService(final HubService hubService, final IntLogger logger, final ProjectGetService projectGetService, final ProjectUpdateService projectUpdateService, final ComponentService componentDataService) {
         super(hubService, logger);
         this.projectGetService = projectGetService;
         this.projectUpdateService = projectUpdateService;
         this.componentDataService = componentDataService;
+        executorService = Optional.empty();
+        maxConcurrentRequests = 1;
+    }
+
+    /**
+     * The component versions of a BOM will be enriched on the provided executor, with at most maxConcurrentRequests component versions in flight at any time. It is up to the user of the ProjectService to shutdown the executor.
+     */
+    public ProjectService(final HubService hubService, final IntLogger logger, final ProjectGetService projectGetService, final ProjectUpdateService projectUpdateService, final ComponentService componentDataService,
+            final ExecutorService executorService, final int maxConcurrentRequests) {
+        super(hubService, logger);
+        this.projectGetService = projectGetService;
+        this.projectUpdateService = projectUpdateService;
+        this.componentDataService = componentDataService;
+        this.executorService = Optional.of(executorService);
+        this.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
     }
 
     public List<ProjectView> getAllProjectMatches(final String projectName) throws IntegrationException {
@@ -237,20 +260,22 @@ public class ProjectService extends DataService {
         return vulnerableBomComponentViews;
     }
 
+    /**
+     * Returns one entry for each BOM component that has a component version, in BOM order. A component version shared by several BOM components is only retrieved once.
+     */
     public List<ComponentVersionVulnerabilities> getComponentVersionVulnerabilities(final ProjectVersionView projectVersionView) throws IntegrationException {
         final List<VersionBomComponentView> versionBomComponentViews = getComponentsForProjectVersion(projectVersionView);
-        final List<ComponentVersionView> componentVersionViews = new ArrayList<>();
+        final List<String> componentVersionUrls = new ArrayList<>(versionBomComponentViews.size());
         for (final VersionBomComponentView versionBomComponentView : versionBomComponentViews) {
             if (StringUtils.isNotBlank(versionBomComponentView.componentVersion)) {
-                final ComponentVersionView componentVersionView = hubService.getResponse(versionBomComponentView.componentVersion, ComponentVersionView.class);
-                componentVersionViews.add(componentVersionView);
+                componentVersionUrls.add(versionBomComponentView.componentVersion);
             }
         }
 
-        final List<ComponentVersionVulnerabilities> componentVersionVulnerabilitiesList = new ArrayList<>();
-        for (final ComponentVersionView componentVersionView : componentVersionViews) {
-            final ComponentVersionVulnerabilities componentVersionVulnerabilities = componentDataService.getComponentVersionVulnerabilities(componentVersionView);
-            componentVersionVulnerabilitiesList.add(componentVersionVulnerabilities);
+        final Map<String, ComponentVersionVulnerabilities> vulnerabilitiesByUrl = getComponentVersionVulnerabilities(new LinkedHashSet<>(componentVersionUrls));
+        final List<ComponentVersionVulnerabilities> componentVersionVulnerabilitiesList = new ArrayList<>(componentVersionUrls.size());
+        for (final String componentVersionUrl : componentVersionUrls) {
+            componentVersionVulnerabilitiesList.add(vulnerabilitiesByUrl.get(componentVersionUrl));
         }
         return componentVersionVulnerabilitiesList;
     }
@@ -264,6 +289,26 @@ public class ProjectService extends DataService {
         return Collections.emptyList();
     }
 
+    private Map<String, ComponentVersionVulnerabilities> getComponentVersionVulnerabilities(final Set<String> componentVersionUrls) throws IntegrationException {
+        final List<Callable<ComponentVersionVulnerabilities>> retrievals = new ArrayList<>(componentVersionUrls.size());
+        for (final String componentVersionUrl : componentVersionUrls) {
+            retrievals.add(() -> retrieveComponentVersionVulnerabilities(componentVersionUrl));
+        }
+        final List<ComponentVersionVulnerabilities> vulnerabilities = BoundedTaskRunner.callAll(executorService, maxConcurrentRequests, retrievals, "component versions");
+
+        final Map<String, ComponentVersionVulnerabilities> vulnerabilitiesByUrl = new HashMap<>();
+        final Iterator<ComponentVersionVulnerabilities> vulnerabilitiesIterator = vulnerabilities.iterator();
+        for (final String componentVersionUrl : componentVersionUrls) {
+            vulnerabilitiesByUrl.put(componentVersionUrl, vulnerabilitiesIterator.next());
+        }
+        return vulnerabilitiesByUrl;
+    }
+
+    private ComponentVersionVulnerabilities retrieveComponentVersionVulnerabilities(final String componentVersionUrl) throws IntegrationException {
+        final ComponentVersionView componentVersionView = hubService.getResponse(componentVersionUrl, ComponentVersionView.class);
+        return componentDataService.getComponentVersionVulnerabilities(componentVersionView);
+    }
+
     public List<VersionBomComponentModel> getComponentsWithMatchedFilesForProjectVersion(final String projectName, final String projectVersionName) throws IntegrationException {
         final Optional<ProjectView> projectItem = getProjectByName(projectName);
         if (projectItem.isPresent()) {
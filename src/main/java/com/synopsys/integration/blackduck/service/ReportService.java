@@ -24,19 +24,38 @@
 package com.synopsys.integration.blackduck.service;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import com.synopsys.integration.blackduck.api.generated.component.RiskCountView;
 import com.synopsys.integration.blackduck.api.generated.enumeration.PolicySummaryStatusType;
 import com.synopsys.integration.blackduck.api.generated.enumeration.ReportFormatType;
@@ -49,9 +68,13 @@ import com.synopsys.integration.blackduck.api.generated.view.ProjectView;
 import com.synopsys.integration.blackduck.api.generated.view.ReportView;
 import com.synopsys.integration.blackduck.api.generated.view.VersionBomComponentView;
 import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.blackduck.exception.HubIntegrationRuntimeException;
 import com.synopsys.integration.blackduck.exception.RiskReportException;
+import com.synopsys.integration.blackduck.service.concurrent.BackoffPoller;
 import com.synopsys.integration.blackduck.service.model.BomComponent;
+import com.synopsys.integration.blackduck.service.model.NoticesReportResult;
 import com.synopsys.integration.blackduck.service.model.PolicyRule;
+import com.synopsys.integration.blackduck.service.model.ProjectVersionWrapper;
 import com.synopsys.integration.blackduck.service.model.ReportData;
 import com.synopsys.integration.blackduck.service.model.RequestFactory;
 import com.synopsys.integration.blackduck.service.model.pdf.RiskReportPdfWriter;
@@ -70,15 +93,32 @@ public class ReportService extends DataService {
     private final ProjectService projectDataService;
     private final IntegrationEscapeUtil escapeUtil;
     private final long timeoutInMilliseconds;
+    private final Optional<ExecutorService> executorService;
+    private final int maxConcurrentRequests;
 
     public ReportService(final HubService hubService, final IntLogger logger, final ProjectService projectDataService, final IntegrationEscapeUtil escapeUtil) {
         this(hubService, logger, projectDataService, escapeUtil, DEFAULT_TIMEOUT);
     }
 
     public ReportService(final HubService hubService, final IntLogger logger, final ProjectService projectDataService, final IntegrationEscapeUtil escapeUtil, final long timeoutInMilliseconds) {
+        this(hubService, logger, projectDataService, escapeUtil, timeoutInMilliseconds, Optional.empty(), 1);
+    }
+
+    /**
+     * The policy information of the risk report components will be requested on the provided executor, with at most maxConcurrentRequests components in flight at any time. It is up to the user of the ReportService to shutdown the executor.
+     */
+    public ReportService(final HubService hubService, final IntLogger logger, final ProjectService projectDataService, final IntegrationEscapeUtil escapeUtil, final long timeoutInMilliseconds, final ExecutorService executorService,
+            final int maxConcurrentRequests) {
+        this(hubService, logger, projectDataService, escapeUtil, timeoutInMilliseconds, Optional.of(executorService), maxConcurrentRequests);
+    }
+
+    private ReportService(final HubService hubService, final IntLogger logger, final ProjectService projectDataService, final IntegrationEscapeUtil escapeUtil, final long timeoutInMilliseconds, final Optional<ExecutorService> executorService,
+            final int maxConcurrentRequests) {
         super(hubService, logger);
         this.projectDataService = projectDataService;
         this.escapeUtil = escapeUtil;
+        this.executorService = executorService;
+        this.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
 
         long timeout = timeoutInMilliseconds;
         if (timeoutInMilliseconds <= 0l) {
@@ -121,9 +161,7 @@ public class ReportService extends DataService {
         if (noticesReportContent == null) {
             return null;
         }
-        final String escapedProjectName = escapeUtil.escapeForUri(projectName);
-        final String escapedProjectVersionName = escapeUtil.escapeForUri(projectVersionName);
-        final File noticesReportFile = new File(outputDirectory, escapedProjectName + "_" + escapedProjectVersionName + "_Hub_Notices_Report.txt");
+        final File noticesReportFile = getNoticesReportFile(outputDirectory, projectName, projectVersionName);
         if (noticesReportFile.exists()) {
             noticesReportFile.delete();
         }
@@ -137,6 +175,12 @@ public class ReportService extends DataService {
         }
     }
 
+    private File getNoticesReportFile(final File outputDirectory, final String projectName, final String projectVersionName) {
+        final String escapedProjectName = escapeUtil.escapeForUri(projectName);
+        final String escapedProjectVersionName = escapeUtil.escapeForUri(projectVersionName);
+        return new File(outputDirectory, escapedProjectName + "_" + escapedProjectVersionName + "_Hub_Notices_Report.txt");
+    }
+
     public Optional<ReportData> getRiskReportData(final String projectName, final String projectVersionName) throws IntegrationException {
         final Optional<ProjectView> project = projectDataService.getProjectByName(projectName);
         if (project.isPresent()) {
@@ -150,6 +194,24 @@ public class ReportService extends DataService {
     }
 
     public ReportData getRiskReportData(final ProjectView project, final ProjectVersionView version) throws IntegrationException {
+        final String originalVersionUrl = hubService.getHref(version);
+        final ReportData reportData = createReportData(project, version);
+        logger.trace("Getting the Report Contents using the Aggregate Bom Rest Server");
+        final List<VersionBomComponentView> bomEntries = hubService.getAllResponses(version, ProjectVersionView.COMPONENTS_LINK_RESPONSE);
+        final List<BomComponent> components = new ArrayList<>(bomEntries.size());
+        final List<ComponentPolicyTask> componentPolicyTasks = new ArrayList<>(bomEntries.size());
+        final AtomicBoolean policyFailure = new AtomicBoolean(false);
+        for (final VersionBomComponentView bomEntry : bomEntries) {
+            final BomComponent component = createBomComponentFromBomComponentView(bomEntry);
+            components.add(component);
+            componentPolicyTasks.add(new ComponentPolicyTask(component, bomEntry, originalVersionUrl, policyFailure));
+        }
+        runComponentPolicyTasks(componentPolicyTasks);
+        reportData.setComponents(components);
+        return reportData;
+    }
+
+    private ReportData createReportData(final ProjectView project, final ProjectVersionView version) throws IntegrationException {
         final String originalProjectUrl = hubService.getHref(project);
         final String originalVersionUrl = hubService.getHref(version);
         final ReportData reportData = new ReportData();
@@ -159,37 +221,35 @@ public class ReportService extends DataService {
         reportData.setProjectVersionURL(getReportVersionUrl(originalVersionUrl, false));
         reportData.setPhase(version.phase.toString());
         reportData.setDistribution(version.distribution.toString());
-        final List<BomComponent> components = new ArrayList<>();
-        logger.trace("Getting the Report Contents using the Aggregate Bom Rest Server");
-        final List<VersionBomComponentView> bomEntries = hubService.getAllResponses(version, ProjectVersionView.COMPONENTS_LINK_RESPONSE);
-        boolean policyFailure = false;
-        for (final VersionBomComponentView bomEntry : bomEntries) {
-            final BomComponent component = createBomComponentFromBomComponentView(bomEntry);
-            String policyStatus = bomEntry.approvalStatus.toString();
-            if (StringUtils.isBlank(policyStatus)) {
-                String componentPolicyStatusURL = null;
-                if (!StringUtils.isBlank(bomEntry.componentVersion)) {
-                    componentPolicyStatusURL = getComponentPolicyURL(originalVersionUrl, bomEntry.componentVersion);
-                } else {
-                    componentPolicyStatusURL = getComponentPolicyURL(originalVersionUrl, bomEntry.component);
-                }
-                if (!policyFailure) {
-                    // FIXME if we could check if the Hub has the policy module we could remove a lot of the mess
-                    try {
-                        final PolicyStatusView bomPolicyStatus = hubService.getResponse(componentPolicyStatusURL, PolicyStatusView.class);
-                        policyStatus = bomPolicyStatus.approvalStatus.toString();
-                    } catch (final IntegrationException e) {
-                        policyFailure = true;
+        return reportData;
+    }
+
+    private void runComponentPolicyTasks(final List<ComponentPolicyTask> componentPolicyTasks) throws IntegrationException {
+        BoundedTaskRunner.callAll(executorService, maxConcurrentRequests, componentPolicyTasks, "component policy information");
+    }
+
+    private String getComponentPolicyStatus(final VersionBomComponentView bomEntry, final String originalVersionUrl, final AtomicBoolean policyFailure) {
+        String policyStatus = bomEntry.approvalStatus.toString();
+        if (StringUtils.isBlank(policyStatus)) {
+            String componentPolicyStatusURL = null;
+            if (!StringUtils.isBlank(bomEntry.componentVersion)) {
+                componentPolicyStatusURL = getComponentPolicyURL(originalVersionUrl, bomEntry.componentVersion);
+            } else {
+                componentPolicyStatusURL = getComponentPolicyURL(originalVersionUrl, bomEntry.component);
+            }
+            if (!policyFailure.get()) {
+                // FIXME if we could check if the Hub has the policy module we could remove a lot of the mess
+                try {
+                    final PolicyStatusView bomPolicyStatus = hubService.getResponse(componentPolicyStatusURL, PolicyStatusView.class);
+                    policyStatus = bomPolicyStatus.approvalStatus.toString();
+                } catch (final IntegrationException e) {
+                    if (policyFailure.compareAndSet(false, true)) {
                         logger.debug("Could not get the component policy status, the Hub policy module is not enabled");
                     }
                 }
             }
-            component.setPolicyStatus(policyStatus);
-            populatePolicyRuleInfo(component, bomEntry);
-            components.add(component);
         }
-        reportData.setComponents(components);
-        return reportData;
+        return policyStatus;
     }
 
     public void createReportFiles(final File outputDirectory, final String projectName, final String projectVersionName) throws IntegrationException {
@@ -214,6 +274,28 @@ public class ReportService extends DataService {
         }
     }
 
+    /**
+     * Creates the same report files as createReportFiles, but the BOM is read a page at a time and its components are written to the report as they are retrieved, so memory use does not grow with the size of the BOM.
+     */
+    public void createStreamedReportFiles(final File outputDirectory, final ProjectView project, final ProjectVersionView version) throws IntegrationException {
+        final ReportData reportData = createReportData(project, version);
+        logger.trace("Streaming the Report Contents using the Aggregate Bom Rest Server");
+        final Iterator<VersionBomComponentView> bomEntries = hubService.iterateResponses(version, ProjectVersionView.COMPONENTS_LINK_RESPONSE);
+        final Iterator<BomComponent> components = new BomComponentIterator(bomEntries, hubService.getHref(version));
+        try {
+            logger.trace("Creating Risk Report Files in : " + outputDirectory.getCanonicalPath());
+            final RiskReportWriter writer = new RiskReportWriter();
+            writer.createHtmlReportFiles(hubService.getGson(), outputDirectory, reportData, components);
+        } catch (final RiskReportException | IOException e) {
+            throw new HubIntegrationException(e.getMessage(), e);
+        } catch (final HubIntegrationRuntimeException e) {
+            if (e.getCause() instanceof IntegrationException) {
+                throw (IntegrationException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     public Optional<File> createReportPdfFile(final File outputDirectory, final String projectName, final String projectVersionName) throws IntegrationException {
         final Optional<ReportData> reportData = getRiskReportData(projectName, projectVersionName);
         if (reportData.isPresent()) {
@@ -239,6 +321,40 @@ public class ReportService extends DataService {
         }
     }
 
+    public File createStreamedReportPdfFile(final File outputDirectory, final ProjectView project, final ProjectVersionView version) throws IntegrationException {
+        return createStreamedReportPdfFile(outputDirectory, project, version, RiskReportPdfWriter.NO_LIMIT, RiskReportPdfWriter.NO_LIMIT);
+    }
+
+    /**
+     * Creates the same pdf as createReportPdfFile without holding the BOM in memory. The summary tables come before the component table, so the BOM is read twice: once for the risk counts and once
+     * for the components themselves.
+     */
+    public File createStreamedReportPdfFile(final File outputDirectory, final ProjectView project, final ProjectVersionView version, final int maxComponentRows, final int maxPages) throws IntegrationException {
+        final ReportData reportData = createReportData(project, version);
+        reportData.setComponents(Collections.emptyList());
+        final Iterator<VersionBomComponentView> countedBomEntries = hubService.iterateResponses(version, ProjectVersionView.COMPONENTS_LINK_RESPONSE);
+        try {
+            while (countedBomEntries.hasNext()) {
+                reportData.countComponent(createBomComponentFromBomComponentView(countedBomEntries.next()));
+            }
+
+            final Iterator<VersionBomComponentView> bomEntries = hubService.iterateResponses(version, ProjectVersionView.COMPONENTS_LINK_RESPONSE);
+            final Iterator<BomComponent> components = new BomComponentIterator(bomEntries, hubService.getHref(version));
+            logger.trace("Creating Risk Report Pdf in : " + outputDirectory.getCanonicalPath());
+            final RiskReportPdfWriter writer = new RiskReportPdfWriter(logger);
+            final File pdfFile = writer.createPDFReportFile(outputDirectory, reportData, components, MemoryUsageSetting.setupMixed(RiskReportPdfWriter.DEFAULT_MAX_MAIN_MEMORY_BYTES), maxComponentRows, maxPages);
+            logger.trace("Created Risk Report Pdf : " + pdfFile.getCanonicalPath());
+            return pdfFile;
+        } catch (final RiskReportException | IOException e) {
+            throw new HubIntegrationException(e.getMessage(), e);
+        } catch (final HubIntegrationRuntimeException e) {
+            if (e.getCause() instanceof IntegrationException) {
+                throw (IntegrationException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     private String getComponentPolicyURL(final String versionURL, final String componentURL) {
         final String componentVersionSegments = componentURL.substring(componentURL.indexOf("components"));
         return versionURL + "/" + componentVersionSegments + "/" + "policy-status";
@@ -347,19 +463,7 @@ public class ReportService extends DataService {
 
                 logger.debug("Waiting for the Notices Report to complete.");
                 final ReportView reportInfo = isReportFinishedGenerating(reportUrl);
-
-                final String contentLink = hubService.getFirstLink(reportInfo, ReportView.CONTENT_LINK);
-
-                if (contentLink == null) {
-                    throw new HubIntegrationException("Could not find content link for the report at : " + reportUrl);
-                }
-
-                logger.debug("Getting the Notices Report content.");
-                final String noticesReport = getNoticesReportContent(contentLink);
-                logger.debug("Finished retrieving the Notices Report.");
-                logger.debug("Cleaning up the Notices Report on the server.");
-                deleteHubReport(reportUrl);
-                return noticesReport;
+                return retrieveNoticesReport(reportUrl, reportInfo);
             } catch (final IntegrationRestException e) {
                 if (e.getHttpStatusCode() == 402) {
                     // unlike the policy module, the licenseReports link is still present when the module is not enabled
@@ -374,6 +478,170 @@ public class ReportService extends DataService {
         return null;
     }
 
+    /**
+     * Generates the notices report without blocking the calling thread: every request, including the polling for the report to finish, is made on the executorService of the provided BackoffPoller,
+     * whose scheduler only waits between the polls. The future completes with null if the Hub notice module is not enabled.
+     */
+    public CompletableFuture<String> generateHubNoticesReportAsync(final ProjectVersionView version, final ReportFormatType reportFormat, final BackoffPoller backoffPoller) {
+        return runNoticesReportAsync(version, reportFormat, backoffPoller, this::retrieveNoticesReport)
+                       .thenApply(noticesReport -> noticesReport.orElse(null));
+    }
+
+    /**
+     * Creates the notices report files of all the versions, with at most maxConcurrentReports reports being generated on the Hub at a time. All the requests, including the polling, are made on the
+     * executorService of the provided BackoffPoller, and each report is written to its file as it is retrieved. The results are in the order of the versions and a failed report does not stop the others,
+     * so the future itself does not fail.
+     * <p>
+     * The content response is read without building a json tree, but the Hub sends the whole report as a single json String, so the text of each report is held in memory while it is written.
+     * Up to maxConcurrentReports report bodies can be in memory at once.
+     */
+    public CompletableFuture<List<NoticesReportResult>> createNoticesReportFiles(final File outputDirectory, final List<ProjectVersionWrapper> versions, final ReportFormatType reportFormat, final BackoffPoller backoffPoller,
+            final int maxConcurrentReports) {
+        final NoticesReportBatch noticesReportBatch = new NoticesReportBatch(outputDirectory, versions, reportFormat, backoffPoller);
+        final int reportsToStart = Math.min(Math.max(1, maxConcurrentReports), versions.size());
+        for (int i = 0; i < reportsToStart; i++) {
+            noticesReportBatch.startNextReport();
+        }
+        return CompletableFuture.allOf(noticesReportBatch.results.toArray(new CompletableFuture[0]))
+                       .thenApply(ignored -> noticesReportBatch.results.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
+    private CompletableFuture<NoticesReportResult> createNoticesReportFileAsync(final File outputDirectory, final ProjectVersionWrapper projectVersionWrapper, final ReportFormatType reportFormat, final BackoffPoller backoffPoller) {
+        final String projectName = projectVersionWrapper.getProjectView().name;
+        final String projectVersionName = projectVersionWrapper.getProjectVersionView().versionName;
+        final File noticesReportFile = getNoticesReportFile(outputDirectory, projectName, projectVersionName);
+        return runNoticesReportAsync(projectVersionWrapper.getProjectVersionView(), reportFormat, backoffPoller, (reportUrl, reportInfo) -> writeNoticesReportFile(reportUrl, reportInfo, noticesReportFile))
+                       .handle((writtenFile, throwable) -> {
+                           if (throwable == null) {
+                               return NoticesReportResult.success(projectVersionWrapper, writtenFile.orElse(null));
+                           }
+                           final Throwable cause = unwrapCompletionException(throwable);
+                           logger.error("Could not create the Notices Report for " + projectName + " - " + projectVersionName + " : " + cause.getMessage());
+                           if (cause instanceof Exception) {
+                               return NoticesReportResult.failure(projectVersionWrapper, (Exception) cause);
+                           }
+                           return NoticesReportResult.failure(projectVersionWrapper, new HubIntegrationException(cause.getMessage(), cause));
+                       });
+    }
+
+    /**
+     * @return An empty Optional if the Hub notice module is not enabled.
+     */
+    private <T> CompletableFuture<Optional<T>> runNoticesReportAsync(final ProjectVersionView version, final ReportFormatType reportFormat, final BackoffPoller backoffPoller, final NoticesReportRetriever<T> noticesReportRetriever) {
+        final CompletableFuture<Optional<T>> noticesReport = backoffPoller.submit(() -> hubService.hasLink(version, ProjectVersionView.LICENSEREPORTS_LINK))
+                                                                          .thenCompose(hasLicenseReportsLink -> {
+                                                                              if (!hasLicenseReportsLink) {
+                                                                                  logger.warn("Can not create the notice report, the Hub notice module is not enabled.");
+                                                                                  return CompletableFuture.completedFuture(Optional.empty());
+                                                                              }
+                                                                              return startAndRetrieveNoticesReport(version, reportFormat, backoffPoller, noticesReportRetriever).thenApply(Optional::of);
+                                                                          });
+        return noticesReport.handle((report, throwable) -> {
+            if (throwable == null) {
+                return report;
+            }
+            final Throwable cause = unwrapCompletionException(throwable);
+            if (cause instanceof IntegrationRestException && ((IntegrationRestException) cause).getHttpStatusCode() == 402) {
+                // unlike the policy module, the licenseReports link is still present when the module is not enabled
+                logger.warn("Can not create the notice report, the Hub notice module is not enabled.");
+                return Optional.empty();
+            }
+            throw new CompletionException(cause);
+        });
+    }
+
+    private <T> CompletableFuture<T> startAndRetrieveNoticesReport(final ProjectVersionView version, final ReportFormatType reportFormat, final BackoffPoller backoffPoller, final NoticesReportRetriever<T> noticesReportRetriever) {
+        logger.debug("Starting the Notices Report generation.");
+        return backoffPoller.submit(() -> startGeneratingHubNoticesReport(version, reportFormat))
+                       .thenCompose(reportUrl -> {
+                           logger.debug("Waiting for the Notices Report to complete.");
+                           final String formattedTime = String.format("%d minutes", TimeUnit.MILLISECONDS.toMinutes(timeoutInMilliseconds));
+                           return backoffPoller.poll(() -> getFinishedReport(reportUrl), timeoutInMilliseconds, "The Report has not finished generating in : " + formattedTime)
+                                          .thenCompose(reportInfo -> backoffPoller.submit(() -> noticesReportRetriever.retrieve(reportUrl, reportInfo)));
+                       });
+    }
+
+    private Throwable unwrapCompletionException(final Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    private Optional<ReportView> getFinishedReport(final String reportUri) throws IntegrationException {
+        final ReportView reportInfo = hubService.getResponse(reportUri, ReportView.class);
+        if (reportInfo.finishedAt == null) {
+            return Optional.empty();
+        }
+        return Optional.of(reportInfo);
+    }
+
+    private String retrieveNoticesReport(final String reportUrl, final ReportView reportInfo) throws IntegrationException {
+        final String contentLink = hubService.getFirstLink(reportInfo, ReportView.CONTENT_LINK);
+
+        if (contentLink == null) {
+            throw new HubIntegrationException("Could not find content link for the report at : " + reportUrl);
+        }
+
+        logger.debug("Getting the Notices Report content.");
+        final String noticesReport = getNoticesReportContent(contentLink);
+        logger.debug("Finished retrieving the Notices Report.");
+        logger.debug("Cleaning up the Notices Report on the server.");
+        deleteHubReport(reportUrl);
+        return noticesReport;
+    }
+
+    /**
+     * Reads the fileContent out of the report content response without building the json tree, and writes it to the file. The fileContent is a single json String, so it is held in memory until
+     * it is written. This runs on the executorService of the BackoffPoller, never on its scheduler.
+     */
+    private File writeNoticesReportFile(final String reportUrl, final ReportView reportInfo, final File noticesReportFile) throws IntegrationException {
+        final String contentLink = hubService.getFirstLink(reportInfo, ReportView.CONTENT_LINK);
+
+        if (contentLink == null) {
+            throw new HubIntegrationException("Could not find content link for the report at : " + reportUrl);
+        }
+
+        logger.debug("Writing the Notices Report content to : " + noticesReportFile.getAbsolutePath());
+        try (Response response = hubService.executeGetRequest(contentLink); JsonReader jsonReader = new JsonReader(new InputStreamReader(response.getContent(), StandardCharsets.UTF_8))) {
+            final Optional<String> fileContent = readFirstFileContent(jsonReader);
+            if (!fileContent.isPresent()) {
+                throw new HubIntegrationException("Could not find the report content at : " + contentLink);
+            }
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(noticesReportFile), StandardCharsets.UTF_8)) {
+                writer.write(fileContent.get());
+            }
+        } catch (final IOException e) {
+            throw new HubIntegrationException(e.getMessage(), e);
+        }
+        logger.debug("Cleaning up the Notices Report on the server.");
+        deleteHubReport(reportUrl);
+        return noticesReportFile;
+    }
+
+    private Optional<String> readFirstFileContent(final JsonReader jsonReader) throws IOException {
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            if (!"reportContent".equals(jsonReader.nextName())) {
+                jsonReader.skipValue();
+                continue;
+            }
+            jsonReader.beginArray();
+            if (!jsonReader.hasNext()) {
+                return Optional.empty();
+            }
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                if ("fileContent".equals(jsonReader.nextName())) {
+                    return Optional.of(jsonReader.nextString());
+                }
+                jsonReader.skipValue();
+            }
+            return Optional.empty();
+        }
+        return Optional.empty();
+    }
+
     public String startGeneratingHubNoticesReport(final ProjectVersionView version, final ReportFormatType reportFormat) throws IntegrationException {
         final String reportUri = hubService.getFirstLink(version, ProjectVersionView.LICENSEREPORTS_LINK);
 
@@ -439,4 +707,128 @@ public class ReportService extends DataService {
         }
     }
 
+    private class ComponentPolicyTask implements Callable<Void> {
+        private final BomComponent component;
+        private final VersionBomComponentView bomEntry;
+        private final String originalVersionUrl;
+        private final AtomicBoolean policyFailure;
+
+        public ComponentPolicyTask(final BomComponent component, final VersionBomComponentView bomEntry, final String originalVersionUrl, final AtomicBoolean policyFailure) {
+            this.component = component;
+            this.bomEntry = bomEntry;
+            this.originalVersionUrl = originalVersionUrl;
+            this.policyFailure = policyFailure;
+        }
+
+        @Override
+        public Void call() throws IntegrationException {
+            component.setPolicyStatus(getComponentPolicyStatus(bomEntry, originalVersionUrl, policyFailure));
+            populatePolicyRuleInfo(component, bomEntry);
+            return null;
+        }
+    }
+
+    /**
+     * Converts the BOM entries into report components as they are iterated, completing the policy information of up to maxConcurrentRequests components at a time.
+     */
+    private class BomComponentIterator implements Iterator<BomComponent> {
+        private final Iterator<VersionBomComponentView> bomEntries;
+        private final String originalVersionUrl;
+        private final AtomicBoolean policyFailure = new AtomicBoolean(false);
+        private final Deque<BomComponent> readyComponents = new ArrayDeque<>();
+
+        public BomComponentIterator(final Iterator<VersionBomComponentView> bomEntries, final String originalVersionUrl) {
+            this.bomEntries = bomEntries;
+            this.originalVersionUrl = originalVersionUrl;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (readyComponents.isEmpty() && bomEntries.hasNext()) {
+                final List<ComponentPolicyTask> componentPolicyTasks = new ArrayList<>(maxConcurrentRequests);
+                while (bomEntries.hasNext() && componentPolicyTasks.size() < maxConcurrentRequests) {
+                    final VersionBomComponentView bomEntry = bomEntries.next();
+                    final BomComponent component = createBomComponentFromBomComponentView(bomEntry);
+                    readyComponents.add(component);
+                    componentPolicyTasks.add(new ComponentPolicyTask(component, bomEntry, originalVersionUrl, policyFailure));
+                }
+                try {
+                    runComponentPolicyTasks(componentPolicyTasks);
+                } catch (final IntegrationException e) {
+                    throw new HubIntegrationRuntimeException(e.getMessage(), e);
+                }
+            }
+            return !readyComponents.isEmpty();
+        }
+
+        @Override
+        public BomComponent next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return readyComponents.removeFirst();
+        }
+    }
+
+    private interface NoticesReportRetriever<T> {
+        T retrieve(String reportUrl, ReportView reportInfo) throws IntegrationException;
+    }
+
+    private class NoticesReportBatch {
+        private final File outputDirectory;
+        private final List<ProjectVersionWrapper> versions;
+        private final ReportFormatType reportFormat;
+        private final BackoffPoller backoffPoller;
+        private final List<CompletableFuture<NoticesReportResult>> results;
+        private final AtomicInteger nextVersion = new AtomicInteger();
+
+        public NoticesReportBatch(final File outputDirectory, final List<ProjectVersionWrapper> versions, final ReportFormatType reportFormat, final BackoffPoller backoffPoller) {
+            this.outputDirectory = outputDirectory;
+            this.versions = versions;
+            this.reportFormat = reportFormat;
+            this.backoffPoller = backoffPoller;
+            results = new ArrayList<>(versions.size());
+            for (int i = 0; i < versions.size(); i++) {
+                results.add(new CompletableFuture<>());
+            }
+        }
+
+        /**
+         * Each finished report starts the next one, which keeps the number of reports in progress constant until the versions run out. Reports that finish right away, such as when the notice
+         * module is not enabled, are moved past in a loop rather than by nesting a call per version, so a large batch can not overflow the stack.
+         */
+        public void startNextReport() {
+            while (true) {
+                final int index = nextVersion.getAndIncrement();
+                if (index >= versions.size()) {
+                    return;
+                }
+                final ProjectVersionWrapper projectVersionWrapper = versions.get(index);
+                final CompletableFuture<NoticesReportResult> report;
+                try {
+                    report = createNoticesReportFileAsync(outputDirectory, projectVersionWrapper, reportFormat, backoffPoller);
+                } catch (final RuntimeException e) {
+                    // record the failure and move on to the next version
+                    results.get(index).complete(NoticesReportResult.failure(projectVersionWrapper, e));
+                    continue;
+                }
+                // whichever of this loop and the completion of the report gets here second starts the next report
+                final AtomicBoolean starting = new AtomicBoolean(true);
+                report.whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        results.get(index).complete(NoticesReportResult.failure(projectVersionWrapper, new HubIntegrationException(throwable.getMessage(), throwable)));
+                    } else {
+                        results.get(index).complete(result);
+                    }
+                    if (!starting.compareAndSet(true, false)) {
+                        startNextReport();
+                    }
+                });
+                if (starting.compareAndSet(true, false)) {
+                    return;
+                }
+            }
+        }
+    }
+
 }
@@ -23,27 +23,150 @@
  */
 package com.synopsys.integration.blackduck.service.bucket;
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.synopsys.integration.blackduck.api.UriSingleResponse;
 import com.synopsys.integration.blackduck.api.core.HubResponse;
 
-public class HubBucket {
-    private final Map<String, HubBucketItem<HubResponse>> bucket = new ConcurrentHashMap<>();
+/**
+ * By default a HubBucket holds everything added to it for as long as it is used. A bucket created with a HubBucket.Builder can be bounded by a number of entries and/or an approximate size, in which case the least recently
+ * used entries are evicted first, and entries can be given a time to live, either per response class or for errors. An expired entry behaves exactly as if it had never been added.
+ * <p>
+ * A bucket built to spill to disk keeps the entries its limits would evict in a local file instead. They are read back and bound into their response class again when they are next needed, so the limits bound the heap
+ * rather than the bucket. Errors are never spilled. Such a bucket should be closed once it is no longer used to delete its file.
+ * <p>
+ * Filling is single-flight: while a uri is being retrieved for the bucket, every other attempt to fill it will find it in flight and getAsync(uri) will hand out that same retrieval.
+ */
+public class HubBucket implements Closeable {
+    public static final long UNLIMITED = -1;
+
+    private final Map<String, BucketEntry> bucket = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<HubBucketItem<HubResponse>>> inFlight = new HashMap<>();
+    private final long maxEntries;
+    private final long maxBytes;
+    private final long defaultTimeToLiveMillis;
+    private final long errorTimeToLiveMillis;
+    private final Map<Class<? extends HubResponse>, Long> timeToLiveMillisByResponseClass;
+    private final LongSupplier clock;
+    private final Optional<HubBucketSpillFile> spillFile;
+    private final Gson gson;
+    private final Map<String, SpilledEntry> spilled = new HashMap<>();
+    private long currentBytes;
+
+    public HubBucket() {
+        this(new Builder());
+    }
+
+    private HubBucket(final Builder builder) {
+        maxEntries = builder.maxEntries;
+        maxBytes = builder.maxBytes;
+        defaultTimeToLiveMillis = builder.defaultTimeToLiveMillis;
+        errorTimeToLiveMillis = builder.errorTimeToLiveMillis;
+        timeToLiveMillisByResponseClass = new HashMap<>(builder.timeToLiveMillisByResponseClass);
+        clock = builder.clock;
+        spillFile = Optional.ofNullable(builder.spillDirectory).map(HubBucketSpillFile::new);
+        gson = builder.gson;
+    }
+
+    public synchronized boolean contains(final String uri) {
+        final long now = clock.getAsLong();
+        final BucketEntry bucketEntry = bucket.get(uri);
+        final SpilledEntry spilledEntry = spilled.get(uri);
+        if ((null != bucketEntry && bucketEntry.isExpired(now)) || (null != spilledEntry && spilledEntry.isExpired(now))) {
+            removeEntry(uri);
+            return false;
+        }
+        return null != bucketEntry || null != spilledEntry;
+    }
+
+    public synchronized Set<String> getAvailableUris() {
+        removeExpired();
+        final Set<String> availableUris = new HashSet<>(bucket.keySet());
+        availableUris.addAll(spilled.keySet());
+        return availableUris;
+    }
 
-    public boolean contains(final String uri) {
-        return bucket.containsKey(uri);
+    public synchronized HubBucketItem<HubResponse> get(final String uri) {
+        final BucketEntry bucketEntry = bucket.get(uri);
+        if (null == bucketEntry) {
+            return getSpilled(uri);
+        }
+        if (bucketEntry.isExpired(clock.getAsLong())) {
+            removeEntry(uri);
+            return null;
+        }
+        return bucketEntry.bucketItem;
     }
 
-    public Set<String> getAvailableUris() {
-        return bucket.keySet();
+    private HubBucketItem<HubResponse> getSpilled(final String uri) {
+        final SpilledEntry spilledEntry = spilled.get(uri);
+        if (null == spilledEntry) {
+            return null;
+        }
+        if (spilledEntry.isExpired(clock.getAsLong())) {
+            removeEntry(uri);
+            return null;
+        }
+        final HubResponse hubResponse;
+        try {
+            final String json = spillFile.get().read(spilledEntry.segment);
+            hubResponse = gson.fromJson(json, spilledEntry.responseClass);
+            hubResponse.json = json;
+        } catch (final IOException | JsonParseException e) {
+            // an entry that can't be read back is treated as evicted, so it will simply be retrieved again
+            return null;
+        } finally {
+            removeEntry(uri);
+        }
+        final HubBucketItem<HubResponse> bucketItem = new HubBucketItem<>(uri, hubResponse);
+        bucket.put(uri, new BucketEntry(bucketItem, spilledEntry.expiresAt, spilledEntry.approximateBytes));
+        currentBytes += spilledEntry.approximateBytes;
+        evict();
+        return bucketItem;
     }
 
-    public HubBucketItem<HubResponse> get(final String uri) {
-        return bucket.get(uri);
+    /**
+     * @return A future of the item for the uri: already complete if the bucket has it, completing when the retrieval finishes if the uri is being filled right now, or already complete with null if neither is true.
+     */
+    public synchronized CompletableFuture<HubBucketItem<HubResponse>> getAsync(final String uri) {
+        final HubBucketItem<HubResponse> bucketItem = get(uri);
+        if (null != bucketItem) {
+            return CompletableFuture.completedFuture(bucketItem);
+        }
+        final CompletableFuture<HubBucketItem<HubResponse>> inFlightItem = inFlight.get(uri);
+        if (null != inFlightItem) {
+            // a dependent future, so a caller can't complete or cancel the shared one
+            return inFlightItem.thenApply(Function.identity());
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Claims the uri for filling. Only the caller that gets true should retrieve the response, and it must then call addValid or addError for the uri so everyone waiting on it is released.
+     * @return false if the bucket already has the uri or someone else is already filling it
+     */
+    synchronized boolean startFilling(final String uri) {
+        if (null != get(uri) || inFlight.containsKey(uri)) {
+            return false;
+        }
+        inFlight.put(uri, new CompletableFuture<>());
+        return true;
     }
 
     public <T extends HubResponse> T get(final String uri, final Class<T> responseClass) {
@@ -52,16 +175,13 @@ public class HubBucket {
     }
 
     public <T extends HubResponse> T get(final UriSingleResponse<T> uriSingleResponse) {
-        final String uri = uriSingleResponse.uri;
-        if (contains(uri)) {
-            final HubBucketItem<HubResponse> bucketItem = get(uri);
-            if (bucketItem.hasValidResponse()) {
-                final Optional<HubResponse> optionalHubResponse = bucketItem.getHubResponse();
-                if (optionalHubResponse.isPresent()) {
-                    final HubResponse hubResponse = optionalHubResponse.get();
-                    if (hubResponse.getClass().equals(uriSingleResponse.responseClass)) {
-                        return getResponseFromBucket(bucketItem);
-                    }
+        final HubBucketItem<HubResponse> bucketItem = get(uriSingleResponse.uri);
+        if (null != bucketItem && bucketItem.hasValidResponse()) {
+            final Optional<HubResponse> optionalHubResponse = bucketItem.getHubResponse();
+            if (optionalHubResponse.isPresent()) {
+                final HubResponse hubResponse = optionalHubResponse.get();
+                if (hubResponse.getClass().equals(uriSingleResponse.responseClass)) {
+                    return getResponseFromBucket(bucketItem);
                 }
             }
         }
@@ -74,23 +194,232 @@ public class HubBucket {
     }
 
     public Optional<HubResponse> getResponse(final String uri) {
-        return bucket.get(uri).getHubResponse();
+        return get(uri).getHubResponse();
     }
 
     public Optional<Exception> getError(final String uri) {
-        return bucket.get(uri).getE();
+        return get(uri).getE();
     }
 
     public void addValid(final String uri, final HubResponse hubResponse) {
-        bucket.put(uri, new HubBucketItem<>(uri, hubResponse));
+        final long timeToLiveMillis = timeToLiveMillisByResponseClass.getOrDefault(hubResponse.getClass(), defaultTimeToLiveMillis);
+        final long approximateBytes = 2L * (uri.length() + (null == hubResponse.json ? 0 : hubResponse.json.length()));
+        add(uri, new HubBucketItem<>(uri, hubResponse), timeToLiveMillis, approximateBytes);
     }
 
     public void addError(final String uri, final Exception e) {
-        bucket.put(uri, new HubBucketItem<>(uri, e));
+        add(uri, new HubBucketItem<>(uri, e), errorTimeToLiveMillis, 2L * uri.length());
     }
 
-    public HubBucketItem<HubResponse> remove(final String uri) {
-        return bucket.remove(uri);
+    private void add(final String uri, final HubBucketItem<HubResponse> bucketItem, final long timeToLiveMillis, final long approximateBytes) {
+        final CompletableFuture<HubBucketItem<HubResponse>> inFlightItem = put(uri, bucketItem, timeToLiveMillis, approximateBytes);
+        // completed outside of the lock since this runs any dependent actions
+        if (null != inFlightItem) {
+            inFlightItem.complete(bucketItem);
+        }
+    }
+
+    public synchronized HubBucketItem<HubResponse> remove(final String uri) {
+        final BucketEntry bucketEntry = removeEntry(uri);
+        return null == bucketEntry ? null : bucketEntry.bucketItem;
+    }
+
+    public synchronized int size() {
+        return bucket.size() + spilled.size();
+    }
+
+    /**
+     * Deletes the spill file, along with every entry in it. Entries held on the heap are kept.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        spilled.clear();
+        if (spillFile.isPresent()) {
+            spillFile.get().close();
+        }
+    }
+
+    private synchronized CompletableFuture<HubBucketItem<HubResponse>> put(final String uri, final HubBucketItem<HubResponse> bucketItem, final long timeToLiveMillis, final long approximateBytes) {
+        final long expiresAt = timeToLiveMillis < 0 ? Long.MAX_VALUE : clock.getAsLong() + timeToLiveMillis;
+        removeEntry(uri);
+        bucket.put(uri, new BucketEntry(bucketItem, expiresAt, approximateBytes));
+        currentBytes += approximateBytes;
+        evict();
+        return inFlight.remove(uri);
+    }
+
+    private BucketEntry removeEntry(final String uri) {
+        final BucketEntry bucketEntry = bucket.remove(uri);
+        if (null != bucketEntry) {
+            currentBytes -= bucketEntry.approximateBytes;
+        }
+        final SpilledEntry spilledEntry = spilled.remove(uri);
+        if (null != spilledEntry) {
+            releaseSpilled(spilledEntry);
+        }
+        return bucketEntry;
+    }
+
+    private void evict() {
+        if (!isOverLimit()) {
+            return;
+        }
+        // expired entries go before anything that is still usable
+        removeExpired();
+        final Iterator<Map.Entry<String, BucketEntry>> leastRecentlyUsed = bucket.entrySet().iterator();
+        // the entry just added is never evicted, even if it is over the limit on its own
+        while (isOverLimit() && bucket.size() > 1) {
+            final Map.Entry<String, BucketEntry> evicted = leastRecentlyUsed.next();
+            currentBytes -= evicted.getValue().approximateBytes;
+            leastRecentlyUsed.remove();
+            spill(evicted.getKey(), evicted.getValue());
+        }
+    }
+
+    private void spill(final String uri, final BucketEntry bucketEntry) {
+        if (!spillFile.isPresent() || !bucketEntry.bucketItem.hasValidResponse()) {
+            return;
+        }
+        final HubResponse hubResponse = bucketEntry.bucketItem.getHubResponse().get();
+        if (null == hubResponse.json) {
+            return;
+        }
+        try {
+            final HubBucketSpillFile.Segment segment = spillFile.get().write(hubResponse.json);
+            spilled.put(uri, new SpilledEntry(hubResponse.getClass(), segment, bucketEntry.expiresAt, bucketEntry.approximateBytes));
+        } catch (final IOException e) {
+            // if the entry can't be spilled it is evicted, just as it would be without a spill file
+        }
+    }
+
+    private void releaseSpilled(final SpilledEntry spilledEntry) {
+        spillFile.get().release(spilledEntry.segment);
+        if (!spillFile.get().needsCompaction()) {
+            return;
+        }
+        try {
+            spillFile.get().compact(spilled.values().stream().map(entry -> entry.segment).collect(Collectors.toList()));
+        } catch (final IOException e) {
+            // a failed compaction leaves the spill file as it was, so it can be tried again on the next release
+        }
+    }
+
+    private boolean isOverLimit() {
+        return (UNLIMITED != maxEntries && bucket.size() > maxEntries) || (UNLIMITED != maxBytes && currentBytes > maxBytes);
+    }
+
+    private void removeExpired() {
+        final long now = clock.getAsLong();
+        final Iterator<BucketEntry> entries = bucket.values().iterator();
+        while (entries.hasNext()) {
+            final BucketEntry bucketEntry = entries.next();
+            if (bucketEntry.isExpired(now)) {
+                currentBytes -= bucketEntry.approximateBytes;
+                entries.remove();
+            }
+        }
+        final Iterator<SpilledEntry> spilledEntries = spilled.values().iterator();
+        while (spilledEntries.hasNext()) {
+            final SpilledEntry spilledEntry = spilledEntries.next();
+            if (spilledEntry.isExpired(now)) {
+                spilledEntries.remove();
+                releaseSpilled(spilledEntry);
+            }
+        }
+    }
+
+    private static class BucketEntry {
+        private final HubBucketItem<HubResponse> bucketItem;
+        private final long expiresAt;
+        private final long approximateBytes;
+
+        public BucketEntry(final HubBucketItem<HubResponse> bucketItem, final long expiresAt, final long approximateBytes) {
+            this.bucketItem = bucketItem;
+            this.expiresAt = expiresAt;
+            this.approximateBytes = approximateBytes;
+        }
+
+        public boolean isExpired(final long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    private static class SpilledEntry {
+        private final Class<? extends HubResponse> responseClass;
+        private final HubBucketSpillFile.Segment segment;
+        private final long expiresAt;
+        private final long approximateBytes;
+
+        public SpilledEntry(final Class<? extends HubResponse> responseClass, final HubBucketSpillFile.Segment segment, final long expiresAt, final long approximateBytes) {
+            this.responseClass = responseClass;
+            this.segment = segment;
+            this.expiresAt = expiresAt;
+            this.approximateBytes = approximateBytes;
+        }
+
+        public boolean isExpired(final long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    public static class Builder {
+        private long maxEntries = UNLIMITED;
+        private long maxBytes = UNLIMITED;
+        private long defaultTimeToLiveMillis = UNLIMITED;
+        private long errorTimeToLiveMillis = UNLIMITED;
+        private final Map<Class<? extends HubResponse>, Long> timeToLiveMillisByResponseClass = new HashMap<>();
+        private LongSupplier clock = System::currentTimeMillis;
+        private File spillDirectory;
+        private Gson gson;
+
+        public HubBucket build() {
+            return new HubBucket(this);
+        }
+
+        public Builder maxEntries(final long maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * The size of a response is approximated from the length of its json.
+         */
+        public Builder maxBytes(final long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        public Builder defaultTimeToLive(final long duration, final TimeUnit timeUnit) {
+            defaultTimeToLiveMillis = timeUnit.toMillis(duration);
+            return this;
+        }
+
+        public Builder timeToLive(final Class<? extends HubResponse> responseClass, final long duration, final TimeUnit timeUnit) {
+            timeToLiveMillisByResponseClass.put(responseClass, timeUnit.toMillis(duration));
+            return this;
+        }
+
+        /**
+         * Errors are usually worth retrying well before a valid response goes stale, so they can expire on their own schedule.
+         */
+        public Builder errorTimeToLive(final long duration, final TimeUnit timeUnit) {
+            errorTimeToLiveMillis = timeUnit.toMillis(duration);
+            return this;
+        }
+
+        /**
+         * Entries evicted by maxEntries or maxBytes will be written to a file in spillDirectory instead of dropped, and bound with gson when they are read back.
+         */
+        public Builder spillToDisk(final File spillDirectory, final Gson gson) {
+            this.spillDirectory = spillDirectory;
+            this.gson = gson;
+            return this;
+        }
+
+        Builder clock(final LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
     }
 
 }
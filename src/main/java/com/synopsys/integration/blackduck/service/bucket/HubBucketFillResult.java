@@ -0,0 +1,152 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.bucket;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.blackduck.exception.HubTimeoutExceededException;
+
+/**
+ * Tracks one call to HubBucketService.addToTheBucket. It completes once every requested uri has been filled, either as a valid response or as an error, including uris that were already being filled by someone else. A uri that was
+ * evicted or expired before it could be read back from the bucket is counted as missing rather than valid.
+ */
+public class HubBucketFillResult {
+    private final HubBucket hubBucket;
+    private final List<CompletableFuture<Void>> taskFutures;
+    private final CompletableFuture<HubBucket> bucketFuture;
+    private final int totalCount;
+    private final AtomicInteger validCount = new AtomicInteger();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private final AtomicInteger missingCount = new AtomicInteger();
+    private final long startTime;
+    private final AtomicLong endTime = new AtomicLong();
+
+    HubBucketFillResult(final HubBucket hubBucket, final List<CompletableFuture<HubBucketItem<HubResponse>>> itemFutures, final List<CompletableFuture<Void>> taskFutures, final long startTime) {
+        this.hubBucket = hubBucket;
+        this.taskFutures = taskFutures;
+        this.startTime = startTime;
+        totalCount = itemFutures.size();
+        // waiting on the counted futures rather than the items themselves guarantees the counts are final once the bucket future completes
+        final CompletableFuture<?>[] countedFutures = itemFutures.stream().map(itemFuture -> itemFuture.thenAccept(this::countItem)).toArray(CompletableFuture[]::new);
+        bucketFuture = CompletableFuture.allOf(countedFutures).thenApply(ignored -> {
+            endTime.set(System.currentTimeMillis());
+            return hubBucket;
+        });
+    }
+
+    /**
+     * @return A future of the bucket that completes when every uri has been filled, or exceptionally if the fill was cancelled.
+     */
+    public CompletableFuture<HubBucket> getFuture() {
+        return bucketFuture.thenApply(bucket -> bucket);
+    }
+
+    public HubBucket getHubBucket() {
+        return hubBucket;
+    }
+
+    public HubBucket waitForCompletion(final long timeout, final TimeUnit timeUnit) throws HubIntegrationException {
+        try {
+            return bucketFuture.get(timeout, timeUnit);
+        } catch (final TimeoutException e) {
+            throw new HubTimeoutExceededException(String.format("The bucket was not filled within %d %s: %d of %d uris are done.", timeout, timeUnit.name().toLowerCase(), getCompletedCount(), totalCount), e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HubIntegrationException("Interrupted while waiting for the bucket to fill: " + e.getMessage(), e);
+        } catch (final ExecutionException | CancellationException e) {
+            throw new HubIntegrationException("The bucket could not be filled: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stops any fill tasks that have not started yet. Tasks that are already retrieving a uri will still add it to the bucket, but this result completes exceptionally.
+     */
+    public void cancel() {
+        taskFutures.forEach(taskFuture -> taskFuture.cancel(false));
+        bucketFuture.cancel(false);
+    }
+
+    public boolean isDone() {
+        return bucketFuture.isDone();
+    }
+
+    public boolean isCancelled() {
+        return bucketFuture.isCancelled();
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public int getCompletedCount() {
+        return validCount.get() + errorCount.get() + missingCount.get();
+    }
+
+    public int getValidCount() {
+        return validCount.get();
+    }
+
+    public int getErrorCount() {
+        return errorCount.get();
+    }
+
+    /**
+     * @return The number of uris that were filled but had already been evicted or had expired by the time they were read back from the bucket.
+     */
+    public int getMissingCount() {
+        return missingCount.get();
+    }
+
+    public int getPendingCount() {
+        return totalCount - getCompletedCount();
+    }
+
+    /**
+     * @return The time spent filling the bucket so far, or in total once it is done.
+     */
+    public long getElapsedMillis() {
+        final long end = endTime.get();
+        return (0 == end ? System.currentTimeMillis() : end) - startTime;
+    }
+
+    private void countItem(final HubBucketItem<HubResponse> bucketItem) {
+        if (null == bucketItem) {
+            missingCount.incrementAndGet();
+        } else if (bucketItem.hasException()) {
+            errorCount.incrementAndGet();
+        } else {
+            validCount.incrementAndGet();
+        }
+    }
+
+}
@@ -25,6 +25,7 @@ package com.synopsys.integration.blackduck.service.bucket;
 
 import com.synopsys.integration.blackduck.api.UriSingleResponse;
 import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
 import com.synopsys.integration.blackduck.service.HubService;
 
 public class HubBucketFillTask implements Runnable {
@@ -40,13 +41,18 @@ public class HubBucketFillTask implements Runnable {
 
     @Override
     public void run() {
-        if (!hubBucket.contains(uriSingleResponse.uri)) {
+        // only the task that claims the uri retrieves it, so concurrent or duplicate tasks never fetch the same uri twice
+        if (hubBucket.startFilling(uriSingleResponse.uri)) {
             try {
                 final HubResponse hubResponse = hubService.getResponse(uriSingleResponse);
                 hubBucket.addValid(uriSingleResponse.uri, hubResponse);
             } catch (final Exception e) {
                 // it is up to the consumer of the bucket to log or handle any/all Exceptions
                 hubBucket.addError(uriSingleResponse.uri, e);
+            } catch (final Error e) {
+                // the uri must still be completed, or everyone waiting on it would wait forever, but an Error is never swallowed
+                hubBucket.addError(uriSingleResponse.uri, new HubIntegrationException(String.format("Could not retrieve %s: %s", uriSingleResponse.uri, e.toString()), e));
+                throw e;
             }
         }
     }
@@ -24,10 +24,15 @@
 package com.synopsys.integration.blackduck.service.bucket;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import com.synopsys.integration.blackduck.api.UriSingleResponse;
@@ -56,34 +61,43 @@ public class HubBucketService extends DataService {
         return hubBucket;
     }
 
-    public <T extends HubResponse> void addToTheBucket(final HubBucket hubBucket, final String uri, final Class<T> responseClass) throws IntegrationException {
+    public <T extends HubResponse> HubBucketFillResult addToTheBucket(final HubBucket hubBucket, final String uri, final Class<T> responseClass) throws IntegrationException {
         final List<UriSingleResponse<? extends HubResponse>> uriSingleResponses = new ArrayList<>();
         uriSingleResponses.add(new UriSingleResponse<>(uri, responseClass));
-        addToTheBucket(hubBucket, uriSingleResponses);
+        return addToTheBucket(hubBucket, uriSingleResponses);
     }
 
-    public void addToTheBucket(final HubBucket hubBucket, final Map<String, Class<? extends HubResponse>> uriToResponseClass) throws IntegrationException {
+    public HubBucketFillResult addToTheBucket(final HubBucket hubBucket, final Map<String, Class<? extends HubResponse>> uriToResponseClass) throws IntegrationException {
         final List<UriSingleResponse<? extends HubResponse>> uriSingleResponses = new ArrayList<>();
         uriToResponseClass.forEach((key, value) -> {
             uriSingleResponses.add(new UriSingleResponse<>(key, value));
         });
-        addToTheBucket(hubBucket, uriSingleResponses);
+        return addToTheBucket(hubBucket, uriSingleResponses);
     }
 
-    public void addToTheBucket(final HubBucket hubBucket, final List<UriSingleResponse<? extends HubResponse>> uriSingleResponses) throws IntegrationException {
-        final List<HubBucketFillTask> taskList = uriSingleResponses.stream().map(uriSingleResponse -> {
-            return new HubBucketFillTask(hubService, hubBucket, uriSingleResponse);
-        }).collect(Collectors.toList());
-        if (executorService.isPresent()) {
-            // NOTE: it is up to the user of the bucket service to shutdown the executor
-            taskList.forEach(task -> {
-                executorService.get().execute(task);
-            });
-        } else {
-            taskList.forEach(task -> {
-                task.run();
-            });
+    /**
+     * With an ExecutorService this returns as soon as the tasks are submitted and the returned HubBucketFillResult tracks them, otherwise every uri has been filled by the time this returns.
+     */
+    public HubBucketFillResult addToTheBucket(final HubBucket hubBucket, final List<UriSingleResponse<? extends HubResponse>> uriSingleResponses) throws IntegrationException {
+        final long startTime = System.currentTimeMillis();
+        final List<UriSingleResponse<? extends HubResponse>> distinctUriSingleResponses = uriSingleResponses.stream().filter(distinctUris()).collect(Collectors.toList());
+        // NOTE: it is up to the user of the bucket service to shutdown the executor
+        final Executor executor = executorService.isPresent() ? executorService.get() : Runnable::run;
+
+        final List<CompletableFuture<Void>> taskFutures = new ArrayList<>(distinctUriSingleResponses.size());
+        final List<CompletableFuture<HubBucketItem<HubResponse>>> itemFutures = new ArrayList<>(distinctUriSingleResponses.size());
+        for (final UriSingleResponse<? extends HubResponse> uriSingleResponse : distinctUriSingleResponses) {
+            final CompletableFuture<Void> taskFuture = CompletableFuture.runAsync(new HubBucketFillTask(hubService, hubBucket, uriSingleResponse), executor);
+            taskFutures.add(taskFuture);
+            // if another fill already had the uri in flight, the task returns right away, so wait on the bucket for the item itself
+            itemFutures.add(taskFuture.thenCompose(ignored -> hubBucket.getAsync(uriSingleResponse.uri)));
         }
+        return new HubBucketFillResult(hubBucket, itemFutures, taskFutures, startTime);
+    }
+
+    private Predicate<UriSingleResponse<? extends HubResponse>> distinctUris() {
+        final Set<String> uris = new HashSet<>();
+        return uriSingleResponse -> uris.add(uriSingleResponse.uri);
     }
 
 }
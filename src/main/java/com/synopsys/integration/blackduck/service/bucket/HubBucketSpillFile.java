@@ -0,0 +1,146 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.bucket;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * An append-only file of json segments for the entries a HubBucket evicts from the heap. Released segments are only reclaimed when the file is compacted, which happens once more of it is garbage than live data.
+ */
+class HubBucketSpillFile implements Closeable {
+    private static final long MINIMUM_GARBAGE_TO_COMPACT = 1024 * 1024;
+
+    private final File directory;
+    private File file;
+    private FileChannel channel;
+    private long liveBytes;
+    private long garbageBytes;
+
+    public HubBucketSpillFile(final File directory) {
+        this.directory = directory;
+    }
+
+    public Segment write(final String json) throws IOException {
+        if (null == channel) {
+            directory.mkdirs();
+            file = File.createTempFile("hub-bucket-", ".spill", directory);
+            file.deleteOnExit();
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        final Segment segment = new Segment(channel.size(), bytes.length);
+        writeFully(channel, ByteBuffer.wrap(bytes), segment.offset);
+        liveBytes += segment.length;
+        return segment;
+    }
+
+    public String read(final Segment segment) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(segment.length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, segment.offset + buffer.position()) < 0) {
+                throw new IOException(String.format("The bucket spill file %s ended before the segment at %d could be read.", file.getAbsolutePath(), segment.offset));
+            }
+        }
+        return new String(buffer.array(), StandardCharsets.UTF_8);
+    }
+
+    public void release(final Segment segment) {
+        liveBytes -= segment.length;
+        garbageBytes += segment.length;
+    }
+
+    public boolean needsCompaction() {
+        return garbageBytes >= MINIMUM_GARBAGE_TO_COMPACT && garbageBytes >= liveBytes;
+    }
+
+    /**
+     * Rewrites the live segments into a new file, updating their offsets.
+     */
+    public void compact(final Collection<Segment> liveSegments) throws IOException {
+        final File compactedFile = File.createTempFile("hub-bucket-", ".spill", directory);
+        compactedFile.deleteOnExit();
+        final FileChannel compactedChannel = FileChannel.open(compactedFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final long[] compactedOffsets = new long[liveSegments.size()];
+        try {
+            long position = 0;
+            int i = 0;
+            for (final Segment segment : liveSegments) {
+                writeFully(compactedChannel, ByteBuffer.wrap(read(segment).getBytes(StandardCharsets.UTF_8)), position);
+                compactedOffsets[i++] = position;
+                position += segment.length;
+            }
+        } catch (final IOException e) {
+            compactedChannel.close();
+            Files.deleteIfExists(compactedFile.toPath());
+            throw e;
+        }
+
+        // the offsets only move once everything has been copied, so a failed compaction leaves the current file fully usable
+        int i = 0;
+        for (final Segment segment : liveSegments) {
+            segment.offset = compactedOffsets[i++];
+        }
+        channel.close();
+        Files.deleteIfExists(file.toPath());
+        file = compactedFile;
+        channel = compactedChannel;
+        garbageBytes = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (null != channel) {
+            channel.close();
+            Files.deleteIfExists(file.toPath());
+            channel = null;
+        }
+        liveBytes = 0;
+        garbageBytes = 0;
+    }
+
+    private void writeFully(final FileChannel fileChannel, final ByteBuffer buffer, final long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            fileChannel.write(buffer, position + buffer.position());
+        }
+    }
+
+    public static class Segment {
+        private long offset;
+        private final int length;
+
+        public Segment(final long offset, final int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.concurrent;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.synopsys.integration.blackduck.exception.HubTimeoutExceededException;
+
+/**
+ * Polls on a shared scheduler instead of a sleeping thread per caller. The delay between attempts starts at initialDelayInMilliseconds and grows by the multiplier up to maxDelayInMilliseconds, with
+ * a random jitter so that many pollers started together do not stay in step. The scheduler only keeps the time: the tasks and the attempts, which usually block on a request, run on the
+ * executorService, so a single scheduler thread is enough for any number of pollers. It is up to the user of the BackoffPoller to shutdown the scheduler and the executorService.
+ */
+public class BackoffPoller {
+    public static final long DEFAULT_INITIAL_DELAY = 250L;
+    public static final long DEFAULT_MAX_DELAY = 5000L;
+    public static final double DEFAULT_MULTIPLIER = 2.0;
+    public static final double DEFAULT_JITTER = 0.2;
+
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService executorService;
+    private final long initialDelayInMilliseconds;
+    private final long maxDelayInMilliseconds;
+    private final double multiplier;
+    private final double jitter;
+
+    public BackoffPoller(final ScheduledExecutorService scheduler, final ExecutorService executorService) {
+        this(scheduler, executorService, DEFAULT_INITIAL_DELAY, DEFAULT_MAX_DELAY, DEFAULT_MULTIPLIER, DEFAULT_JITTER);
+    }
+
+    /**
+     * @param jitter The fraction, between 0 and 1, by which each delay is randomly lengthened or shortened.
+     */
+    public BackoffPoller(final ScheduledExecutorService scheduler, final ExecutorService executorService, final long initialDelayInMilliseconds, final long maxDelayInMilliseconds, final double multiplier, final double jitter) {
+        this.scheduler = scheduler;
+        this.executorService = executorService;
+        this.initialDelayInMilliseconds = Math.max(1, initialDelayInMilliseconds);
+        this.maxDelayInMilliseconds = Math.max(this.initialDelayInMilliseconds, maxDelayInMilliseconds);
+        this.multiplier = Math.max(1.0, multiplier);
+        this.jitter = Math.min(1.0, Math.max(0.0, jitter));
+    }
+
+    /**
+     * Runs the task on the executorService.
+     */
+    public <T> CompletableFuture<T> submit(final Callable<T> task) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        execute(result, () -> result.complete(task.call()));
+        return result;
+    }
+
+    /**
+     * Calls the attempt right away and then after each backoff delay, until it returns a value or fails. Once timeoutInMilliseconds have passed without a value, the future fails with a
+     * HubTimeoutExceededException carrying the timeoutMessage. Cancelling the future stops the polling.
+     */
+    public <T> CompletableFuture<T> poll(final Callable<Optional<T>> attempt, final long timeoutInMilliseconds, final String timeoutMessage) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final long startTime = System.currentTimeMillis();
+        scheduleAttempt(result, attempt, 0, 0, startTime, timeoutInMilliseconds, timeoutMessage);
+        return result;
+    }
+
+    public long getDelay(final int attemptsSoFar) {
+        final double backoffDelay = Math.min(maxDelayInMilliseconds, initialDelayInMilliseconds * Math.pow(multiplier, Math.max(0, attemptsSoFar - 1)));
+        final double jitterFactor = 1.0 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Math.max(1, Math.round(backoffDelay * jitterFactor));
+    }
+
+    private <T> void scheduleAttempt(final CompletableFuture<T> result, final Callable<Optional<T>> attempt, final long delay, final int attemptsSoFar, final long startTime, final long timeoutInMilliseconds,
+            final String timeoutMessage) {
+        final Runnable runAttempt = () -> execute(result, () -> {
+            final Optional<T> value = attempt.call();
+            if (value.isPresent()) {
+                result.complete(value.get());
+                return;
+            }
+            final long elapsedTime = System.currentTimeMillis() - startTime;
+            if (elapsedTime >= timeoutInMilliseconds) {
+                result.completeExceptionally(new HubTimeoutExceededException(timeoutMessage));
+                return;
+            }
+            // never wait past the timeout, so the last attempt happens right at it
+            final long nextDelay = Math.min(getDelay(attemptsSoFar + 1), timeoutInMilliseconds - elapsedTime);
+            scheduleAttempt(result, attempt, nextDelay, attemptsSoFar + 1, startTime, timeoutInMilliseconds, timeoutMessage);
+        });
+        try {
+            if (delay <= 0) {
+                runAttempt.run();
+            } else {
+                scheduler.schedule(runAttempt, delay, TimeUnit.MILLISECONDS);
+            }
+        } catch (final RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Hands the work to the executorService, failing the result if the work throws or can not be started. Nothing is run once the result is done, so a cancelled poll stops at its next attempt.
+     */
+    private <T> void execute(final CompletableFuture<T> result, final ResultWork work) {
+        try {
+            executorService.execute(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    work.run();
+                } catch (final Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResultWork {
+        void run() throws Exception;
+    }
+
+}
@@ -0,0 +1,66 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out requests evenly so that no more than maxRequestsPerSecond start in any second, across all of the threads sharing the RateLimiter.
+ */
+public class RateLimiter {
+    public static final double NO_LIMIT = 0.0;
+
+    private final long intervalInNanoseconds;
+    private long nextPermitTime;
+
+    /**
+     * @param maxRequestsPerSecond A value of NO_LIMIT, or less, never waits.
+     */
+    public RateLimiter(final double maxRequestsPerSecond) {
+        intervalInNanoseconds = maxRequestsPerSecond > NO_LIMIT ? (long) (TimeUnit.SECONDS.toNanos(1) / maxRequestsPerSecond) : 0L;
+        nextPermitTime = System.nanoTime();
+    }
+
+    /**
+     * Blocks until the next request may start.
+     */
+    public void acquire() throws InterruptedException {
+        if (0L == intervalInNanoseconds) {
+            return;
+        }
+
+        final long waitTime;
+        synchronized (this) {
+            final long currentTime = System.nanoTime();
+            // time not used while idle is not saved up, so there is never a burst
+            final long permitTime = Math.max(currentTime, nextPermitTime);
+            nextPermitTime = permitTime + intervalInNanoseconds;
+            waitTime = permitTime - currentTime;
+        }
+        if (waitTime > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitTime);
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.model;
+
+import java.util.Optional;
+
+import com.synopsys.integration.blackduck.api.generated.view.CodeLocationView;
+
+/**
+ * The outcome for one code location of a bulk delete, map or unmap.
+ */
+public class CodeLocationBulkResult {
+    private final CodeLocationView codeLocationView;
+    private final Exception exception;
+
+    public static CodeLocationBulkResult success(final CodeLocationView codeLocationView) {
+        return new CodeLocationBulkResult(codeLocationView, null);
+    }
+
+    public static CodeLocationBulkResult failure(final CodeLocationView codeLocationView, final Exception exception) {
+        return new CodeLocationBulkResult(codeLocationView, exception);
+    }
+
+    private CodeLocationBulkResult(final CodeLocationView codeLocationView, final Exception exception) {
+        this.codeLocationView = codeLocationView;
+        this.exception = exception;
+    }
+
+    public CodeLocationView getCodeLocationView() {
+        return codeLocationView;
+    }
+
+    public boolean isSuccess() {
+        return exception == null;
+    }
+
+    public Optional<Exception> getException() {
+        return Optional.ofNullable(exception);
+    }
+
+}
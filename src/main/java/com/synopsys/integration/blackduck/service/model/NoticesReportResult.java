@@ -0,0 +1,67 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.model;
+
+import java.io.File;
+import java.util.Optional;
+
+/**
+ * The outcome of the notices report of one project version in a bulk request. A success without a file means the Hub notice module is not enabled.
+ */
+public class NoticesReportResult {
+    private final ProjectVersionWrapper projectVersionWrapper;
+    private final File noticesReportFile;
+    private final Exception exception;
+
+    public static NoticesReportResult success(final ProjectVersionWrapper projectVersionWrapper, final File noticesReportFile) {
+        return new NoticesReportResult(projectVersionWrapper, noticesReportFile, null);
+    }
+
+    public static NoticesReportResult failure(final ProjectVersionWrapper projectVersionWrapper, final Exception exception) {
+        return new NoticesReportResult(projectVersionWrapper, null, exception);
+    }
+
+    private NoticesReportResult(final ProjectVersionWrapper projectVersionWrapper, final File noticesReportFile, final Exception exception) {
+        this.projectVersionWrapper = projectVersionWrapper;
+        this.noticesReportFile = noticesReportFile;
+        this.exception = exception;
+    }
+
+    public ProjectVersionWrapper getProjectVersionWrapper() {
+        return projectVersionWrapper;
+    }
+
+    public boolean isSuccess() {
+        return exception == null;
+    }
+
+    public Optional<File> getNoticesReportFile() {
+        return Optional.ofNullable(noticesReportFile);
+    }
+
+    public Optional<Exception> getException() {
+        return Optional.ofNullable(exception);
+    }
+
+}
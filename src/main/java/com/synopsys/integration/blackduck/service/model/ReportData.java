@@ -164,48 +164,66 @@ public class ReportData {
     public void setComponents(final List<BomComponent> components) {
         this.components = components;
 
+        totalComponents = 0;
         vulnerabilityRiskHighCount = 0;
         vulnerabilityRiskMediumCount = 0;
         vulnerabilityRiskLowCount = 0;
+        vulnerabilityRiskNoneCount = 0;
 
         licenseRiskHighCount = 0;
         licenseRiskMediumCount = 0;
         licenseRiskLowCount = 0;
+        licenseRiskNoneCount = 0;
 
         operationalRiskHighCount = 0;
         operationalRiskMediumCount = 0;
         operationalRiskLowCount = 0;
+        operationalRiskNoneCount = 0;
 
         for (final BomComponent component : components) {
-            if (component != null) {
-                if (component.getSecurityRiskHighCount() > 0) {
-                    vulnerabilityRiskHighCount++;
-                } else if (component.getSecurityRiskMediumCount() > 0) {
-                    vulnerabilityRiskMediumCount++;
-                } else if (component.getSecurityRiskLowCount() > 0) {
-                    vulnerabilityRiskLowCount++;
-                }
-                if (component.getLicenseRiskHighCount() > 0) {
-                    licenseRiskHighCount++;
-                } else if (component.getLicenseRiskMediumCount() > 0) {
-                    licenseRiskMediumCount++;
-                } else if (component.getLicenseRiskLowCount() > 0) {
-                    licenseRiskLowCount++;
-                }
-                if (component.getOperationalRiskHighCount() > 0) {
-                    operationalRiskHighCount++;
-                } else if (component.getOperationalRiskMediumCount() > 0) {
-                    operationalRiskMediumCount++;
-                } else if (component.getOperationalRiskLowCount() > 0) {
-                    operationalRiskLowCount++;
-                }
-            }
+            countComponent(component);
+        }
+    }
+
+    /**
+     * Adds the component to the risk counts without keeping a reference to it, so a report can be written while its components are streamed.
+     */
+    public void countComponent(final BomComponent component) {
+        totalComponents++;
+        if (component == null) {
+            vulnerabilityRiskNoneCount++;
+            licenseRiskNoneCount++;
+            operationalRiskNoneCount++;
+            return;
         }
-        totalComponents = components.size();
 
-        vulnerabilityRiskNoneCount = totalComponents - vulnerabilityRiskHighCount - vulnerabilityRiskMediumCount - vulnerabilityRiskLowCount;
-        licenseRiskNoneCount = totalComponents - licenseRiskHighCount - licenseRiskMediumCount - licenseRiskLowCount;
-        operationalRiskNoneCount = totalComponents - operationalRiskHighCount - operationalRiskMediumCount - operationalRiskLowCount;
+        if (component.getSecurityRiskHighCount() > 0) {
+            vulnerabilityRiskHighCount++;
+        } else if (component.getSecurityRiskMediumCount() > 0) {
+            vulnerabilityRiskMediumCount++;
+        } else if (component.getSecurityRiskLowCount() > 0) {
+            vulnerabilityRiskLowCount++;
+        } else {
+            vulnerabilityRiskNoneCount++;
+        }
+        if (component.getLicenseRiskHighCount() > 0) {
+            licenseRiskHighCount++;
+        } else if (component.getLicenseRiskMediumCount() > 0) {
+            licenseRiskMediumCount++;
+        } else if (component.getLicenseRiskLowCount() > 0) {
+            licenseRiskLowCount++;
+        } else {
+            licenseRiskNoneCount++;
+        }
+        if (component.getOperationalRiskHighCount() > 0) {
+            operationalRiskHighCount++;
+        } else if (component.getOperationalRiskMediumCount() > 0) {
+            operationalRiskMediumCount++;
+        } else if (component.getOperationalRiskLowCount() > 0) {
+            operationalRiskLowCount++;
+        } else {
+            operationalRiskNoneCount++;
+        }
     }
 
 }
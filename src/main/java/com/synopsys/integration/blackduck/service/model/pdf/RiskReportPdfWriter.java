@@ -30,9 +30,11 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 
@@ -45,6 +47,13 @@ import com.synopsys.integration.pdf.StringManager;
 import com.synopsys.integration.util.IntegrationEscapeUtil;
 
 public class RiskReportPdfWriter {
+    public static final int NO_LIMIT = -1;
+    public static final long DEFAULT_MAX_MAIN_MEMORY_BYTES = 16 * 1024 * 1024;
+
+    // the PDFBoxManager starts a new page for anything drawn below this
+    private static final float BOTTOM_MARGIN = 10F;
+    private static final float OMITTED_COMPONENTS_OFFSET = 20F;
+
     private final IntLogger logger;
 
     private final String HIGH_RISK = "High Risk";
@@ -59,6 +68,28 @@ public class RiskReportPdfWriter {
     }
 
     public File createPDFReportFile(final File outputDirectory, final ReportData report) throws RiskReportException {
+        return createPDFReportFile(outputDirectory, report, report.getComponents().iterator(), new PDDocument(), NO_LIMIT, NO_LIMIT);
+    }
+
+    /**
+     * Writes the component table while the components are read from the provided Iterator. The counts of the report must already be set, the components of the report are ignored. Beyond
+     * DEFAULT_MAX_MAIN_MEMORY_BYTES, the document is buffered in a temporary scratch file instead of the heap.
+     */
+    public File createPDFReportFile(final File outputDirectory, final ReportData report, final Iterator<BomComponent> components) throws RiskReportException {
+        return createPDFReportFile(outputDirectory, report, components, MemoryUsageSetting.setupMixed(DEFAULT_MAX_MAIN_MEMORY_BYTES), NO_LIMIT, NO_LIMIT);
+    }
+
+    /**
+     * Once either maxComponentRows rows have been written or page maxPages has no room for the next row, the remaining components are only summarized by a count. Use NO_LIMIT for either to not
+     * limit the report.
+     */
+    public File createPDFReportFile(final File outputDirectory, final ReportData report, final Iterator<BomComponent> components, final MemoryUsageSetting memoryUsageSetting, final int maxComponentRows, final int maxPages)
+            throws RiskReportException {
+        return createPDFReportFile(outputDirectory, report, components, new PDDocument(memoryUsageSetting), maxComponentRows, maxPages);
+    }
+
+    private File createPDFReportFile(final File outputDirectory, final ReportData report, final Iterator<BomComponent> components, final PDDocument document, final int maxComponentRows, final int maxPages)
+            throws RiskReportException {
         final IntegrationEscapeUtil escapeUtil = new IntegrationEscapeUtil();
         final String escapedProjectName = escapeUtil.escapeForUri(report.getProjectName());
         final String escapedProjectVersionName = escapeUtil.escapeForUri(report.getProjectVersion());
@@ -66,7 +97,6 @@ public class RiskReportPdfWriter {
         if (pdfFile.exists()) {
             pdfFile.delete();
         }
-        final PDDocument document = new PDDocument();
         document.getDocumentInformation().setAuthor("Black Duck Software");
         document.getDocumentInformation().setCreator("Integrations");
         document.getDocumentInformation().setSubject("Hub Risk Report");
@@ -80,7 +110,7 @@ public class RiskReportPdfWriter {
             final PDRectangle headerRectangle = writeHeader(pageWidth, pageHeight);
             final PDRectangle bottomOfProjectInfoRectangle = writeProjectInformation(pageWidth, headerRectangle.getLowerLeftY(), report);
             final PDRectangle bottomOfSummaryTableRectangle = writeSummaryTables(pageWidth, bottomOfProjectInfoRectangle.getLowerLeftY(), report);
-            final PDRectangle bottomOfComponentTableRectangle = writeComponentTable(pageWidth, bottomOfSummaryTableRectangle.getLowerLeftY(), report);
+            final PDRectangle bottomOfComponentTableRectangle = writeComponentTable(pageWidth, bottomOfSummaryTableRectangle.getLowerLeftY(), report.getTotalComponents(), components, document, maxComponentRows, maxPages);
 
             return pdfFile;
         } catch (final IOException | URISyntaxException e) {
@@ -149,11 +179,12 @@ public class RiskReportPdfWriter {
         return rectangle;
     }
 
-    private PDRectangle writeComponentTable(final float pageWidth, final float startingHeight, final ReportData reportData) throws IOException, URISyntaxException {
+    private PDRectangle writeComponentTable(final float pageWidth, final float startingHeight, final int totalComponents, final Iterator<BomComponent> components, final PDDocument document, final int maxComponentRows,
+            final int maxPages) throws IOException, URISyntaxException {
         // new Color(221, 221, 221)
         final float height = startingHeight - 20;
 
-        final PDRectangle rectangle = pdfManager.writeText(30, height, "BOM Entries " + reportData.getTotalComponents());
+        final PDRectangle rectangle = pdfManager.writeText(30, height, "BOM Entries " + totalComponents);
 
         // header row
         PDRectangle rowRectangle = pdfManager.drawRectangle(10, rectangle.getLowerLeftY() - 22, pageWidth - 20, 18, new Color(221, 221, 221));
@@ -167,35 +198,50 @@ public class RiskReportPdfWriter {
         pdfManager.writeText(550, rowY, "Opt R", PDFBoxManager.DEFAULT_FONT_BOLD, 12, PDFBoxManager.DEFAULT_COLOR);
 
         boolean isOdd = false;
-        for (final BomComponent component : reportData.getComponents()) {
-            if (null != component) {
-                rowRectangle = writeComponentRow(pageWidth, rowRectangle.getLowerLeftY(), component, isOdd);
-                isOdd = !isOdd;
+        int componentRows = 0;
+        // every entry taken from the components, including the null ones that are never shown
+        int componentsRead = 0;
+        while (components.hasNext()) {
+            if (isLimitReached(componentRows, maxComponentRows)) {
+                rowRectangle = writeOmittedComponents(rowRectangle, totalComponents - componentsRead, componentRows);
+                break;
             }
+            final BomComponent component = components.next();
+            componentsRead++;
+            if (null == component) {
+                continue;
+            }
+            // the last allowed page is filled, keeping room below the last row for the count of the rows left out
+            if (isLimitReached(document.getNumberOfPages(), maxPages) && rowRectangle.getLowerLeftY() - getComponentRowHeight(component) - OMITTED_COMPONENTS_OFFSET < BOTTOM_MARGIN) {
+                rowRectangle = writeOmittedComponents(rowRectangle, totalComponents - componentsRead + 1, componentRows);
+                break;
+            }
+            rowRectangle = writeComponentRow(pageWidth, rowRectangle.getLowerLeftY(), component, isOdd);
+            isOdd = !isOdd;
+            componentRows++;
         }
         logger.trace("Finished writing the component table.");
         return rowRectangle;
     }
 
-    private PDRectangle writeComponentRow(final float pageWidth, final float y, final BomComponent component, final boolean isOdd) throws IOException, URISyntaxException {
-        final float componentNameWidth = 125F;
-        final float componentVersionWidth = 115F;
-        final float componentLicenseWidth = 150F;
+    private boolean isLimitReached(final int count, final int limit) {
+        return NO_LIMIT != limit && count >= limit;
+    }
 
-        List<String> componentNameTextLines = new ArrayList<>();
-        List<String> componentVersionTextLines = new ArrayList<>();
-        List<String> componentLicenseTextLines = new ArrayList<>();
+    private PDRectangle writeOmittedComponents(final PDRectangle rowRectangle, final int omittedComponents, final int componentRows) throws IOException {
+        // a streamed BOM can grow between counting it and writing it, so the total may already be behind
+        final int shownOmittedComponents = Math.max(0, omittedComponents);
+        final PDRectangle omittedRectangle = pdfManager.writeText(30, rowRectangle.getLowerLeftY() - OMITTED_COMPONENTS_OFFSET, shownOmittedComponents + " more BOM Entries are not shown in this report.");
+        logger.debug("The risk report was limited to " + componentRows + " BOM Entries, " + shownOmittedComponents + " more are not shown.");
+        return omittedRectangle;
+    }
 
-        if (StringUtils.isNotBlank(component.getComponentName())) {
-            componentNameTextLines = StringManager.wrapToCombinedList(component.getComponentName(), Math.round(componentNameWidth));
-        }
-        if (StringUtils.isNotBlank(component.getComponentVersion())) {
-            componentVersionTextLines = StringManager.wrapToCombinedList(component.getComponentVersion(), Math.round(componentNameWidth));
-        }
-        if (StringUtils.isNotBlank(component.getLicense())) {
-            componentLicenseTextLines = StringManager.wrapToCombinedList(component.getLicense(), Math.round(componentNameWidth));
-        }
+    private float getComponentRowHeight(final BomComponent component) {
+        final float componentNameWidth = 125F;
+        return getRowHeight(wrapText(component.getComponentName(), componentNameWidth), wrapText(component.getComponentVersion(), componentNameWidth), wrapText(component.getLicense(), componentNameWidth));
+    }
 
+    private float getRowHeight(final List<String> componentNameTextLines, final List<String> componentVersionTextLines, final List<String> componentLicenseTextLines) {
         float rowHeight = pdfManager.getApproximateWrappedStringHeight(componentNameTextLines.size(), PDFBoxManager.DEFAULT_FONT_SIZE);
         final float componentVersionHeight = pdfManager.getApproximateWrappedStringHeight(componentVersionTextLines.size(), PDFBoxManager.DEFAULT_FONT_SIZE);
         final float componentLicenseHeight = pdfManager.getApproximateWrappedStringHeight(componentLicenseTextLines.size(), PDFBoxManager.DEFAULT_FONT_SIZE);
@@ -205,6 +251,25 @@ public class RiskReportPdfWriter {
         if (componentLicenseHeight > rowHeight) {
             rowHeight = componentLicenseHeight;
         }
+        return rowHeight;
+    }
+
+    private List<String> wrapText(final String text, final float width) {
+        if (StringUtils.isNotBlank(text)) {
+            return StringManager.wrapToCombinedList(text, Math.round(width));
+        }
+        return new ArrayList<>();
+    }
+
+    private PDRectangle writeComponentRow(final float pageWidth, final float y, final BomComponent component, final boolean isOdd) throws IOException, URISyntaxException {
+        final float componentNameWidth = 125F;
+        final float componentVersionWidth = 115F;
+        final float componentLicenseWidth = 150F;
+
+        final List<String> componentNameTextLines = wrapText(component.getComponentName(), componentNameWidth);
+        final List<String> componentVersionTextLines = wrapText(component.getComponentVersion(), componentNameWidth);
+        final List<String> componentLicenseTextLines = wrapText(component.getLicense(), componentNameWidth);
+        final float rowHeight = getRowHeight(componentNameTextLines, componentVersionTextLines, componentLicenseTextLines);
 
         PDRectangle rowRectangle = null;
         Color rowColor = Color.WHITE;
@@ -23,37 +23,41 @@
  */
 package com.synopsys.integration.blackduck.service.model.pdf;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonWriter;
 import com.synopsys.integration.blackduck.exception.RiskReportException;
+import com.synopsys.integration.blackduck.service.model.BomComponent;
 import com.synopsys.integration.blackduck.service.model.ReportData;
 
 public class RiskReportWriter {
+    private static final int TEMPLATE_BUFFER_SIZE = 8192;
+
     public void createHtmlReportFiles(final Gson gson, final File outputDirectory, final ReportData reportData) throws RiskReportException {
         try {
-            final RiskReportResourceCopier copier = new RiskReportResourceCopier(outputDirectory.getCanonicalPath());
-            File htmlFile = null;
-            try {
-                final List<File> writtenFiles = copier.copy();
-                for (final File file : writtenFiles) {
-                    if (file.getName().equals(RiskReportResourceCopier.RISK_REPORT_HTML_FILE_NAME)) {
-                        htmlFile = file;
-                        break;
-                    }
-                }
-            } catch (final URISyntaxException e) {
-                throw new RiskReportException("Couldn't create the report: " + e.getMessage(), e);
-            }
-            if (htmlFile == null) {
-                throw new RiskReportException("Could not find the file : " + RiskReportResourceCopier.RISK_REPORT_HTML_FILE_NAME
-                                                      + ", the report files must not have been copied into the report directory.");
-            }
+            final File htmlFile = copyReportFiles(outputDirectory);
             String htmlFileString = FileUtils.readFileToString(htmlFile, "UTF-8");
             final String reportString = gson.toJson(reportData);
             htmlFileString = htmlFileString.replace(RiskReportResourceCopier.JSON_TOKEN_TO_REPLACE, reportString);
@@ -63,4 +67,100 @@ public class RiskReportWriter {
         }
     }
 
+    /**
+     * Writes the report while the components are read from the provided Iterator, so neither the components nor the report json are ever held in memory as a whole. The components of the reportData are ignored, its counts are
+     * calculated from the streamed components.
+     */
+    public void createHtmlReportFiles(final Gson gson, final File outputDirectory, final ReportData reportData, final Iterator<BomComponent> components) throws RiskReportException {
+        try {
+            final File htmlFile = copyReportFiles(outputDirectory);
+            final File partialHtmlFile = new File(htmlFile.getParentFile(), htmlFile.getName() + ".part");
+            try {
+                try (Reader template = new InputStreamReader(new FileInputStream(htmlFile), StandardCharsets.UTF_8);
+                        Writer html = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(partialHtmlFile), StandardCharsets.UTF_8))) {
+                    final Optional<String> readPastToken = copyTemplateUntilToken(template, html);
+                    if (readPastToken.isPresent()) {
+                        writeReportJson(gson, html, reportData, components);
+                        html.write(readPastToken.get());
+                        IOUtils.copy(template, html);
+                    }
+                }
+                Files.move(partialHtmlFile.toPath(), htmlFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                FileUtils.deleteQuietly(partialHtmlFile);
+            }
+        } catch (final IOException e) {
+            throw new RiskReportException("Couldn't create the report: " + e.getMessage(), e);
+        }
+    }
+
+    private File copyReportFiles(final File outputDirectory) throws IOException, RiskReportException {
+        final RiskReportResourceCopier copier = new RiskReportResourceCopier(outputDirectory.getCanonicalPath());
+        File htmlFile = null;
+        try {
+            final List<File> writtenFiles = copier.copy();
+            for (final File file : writtenFiles) {
+                if (file.getName().equals(RiskReportResourceCopier.RISK_REPORT_HTML_FILE_NAME)) {
+                    htmlFile = file;
+                    break;
+                }
+            }
+        } catch (final URISyntaxException e) {
+            throw new RiskReportException("Couldn't create the report: " + e.getMessage(), e);
+        }
+        if (htmlFile == null) {
+            throw new RiskReportException("Could not find the file : " + RiskReportResourceCopier.RISK_REPORT_HTML_FILE_NAME
+                                                  + ", the report files must not have been copied into the report directory.");
+        }
+        return htmlFile;
+    }
+
+    /**
+     * @return If the token was found, the part of the template that was already read past the token.
+     */
+    private Optional<String> copyTemplateUntilToken(final Reader template, final Writer html) throws IOException {
+        final String token = RiskReportResourceCopier.JSON_TOKEN_TO_REPLACE;
+        final StringBuilder pending = new StringBuilder();
+        final char[] buffer = new char[TEMPLATE_BUFFER_SIZE];
+        int read;
+        while ((read = template.read(buffer)) != -1) {
+            pending.append(buffer, 0, read);
+            final int tokenIndex = pending.indexOf(token);
+            if (tokenIndex >= 0) {
+                html.write(pending.substring(0, tokenIndex));
+                return Optional.of(pending.substring(tokenIndex + token.length()));
+            }
+            // keep just enough to find a token that spans two reads
+            final int safeLength = pending.length() - (token.length() - 1);
+            if (safeLength > 0) {
+                html.write(pending.substring(0, safeLength));
+                pending.delete(0, safeLength);
+            }
+        }
+        html.write(pending.toString());
+        return Optional.empty();
+    }
+
+    private void writeReportJson(final Gson gson, final Writer html, final ReportData reportData, final Iterator<BomComponent> components) throws IOException {
+        final JsonWriter jsonWriter = gson.newJsonWriter(html);
+        jsonWriter.beginObject();
+        jsonWriter.name("components");
+        jsonWriter.beginArray();
+        reportData.setComponents(Collections.emptyList());
+        while (components.hasNext()) {
+            final BomComponent component = components.next();
+            gson.toJson(component, BomComponent.class, jsonWriter);
+            reportData.countComponent(component);
+        }
+        jsonWriter.endArray();
+        for (final Map.Entry<String, JsonElement> reportField : gson.toJsonTree(reportData).getAsJsonObject().entrySet()) {
+            if (!"components".equals(reportField.getKey())) {
+                jsonWriter.name(reportField.getKey());
+                gson.toJson(reportField.getValue(), jsonWriter);
+            }
+        }
+        jsonWriter.endObject();
+        jsonWriter.flush();
+    }
+
 }
@@ -25,12 +25,14 @@ package com.synopsys.integration.blackduck.api.view;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
 import com.google.gson.Gson;
 import com.synopsys.integration.blackduck.api.core.HubView;
+import com.synopsys.integration.blackduck.api.core.ResourceLink;
 import com.synopsys.integration.blackduck.api.generated.view.ProjectView;
 import com.synopsys.integration.blackduck.exception.HubIntegrationException;
 import com.synopsys.integration.log.BufferedIntLogger;
@@ -107,4 +109,54 @@ public class MetaHandlerTest {
         assertEquals(0, nonHttpLinkCount);
     }
 
+    @Test
+    public void testChangedLinksAreFound() throws Exception {
+        final MetaHandler metaHandler = getMetaHandler();
+        final HubView hubItem = getTestHubItem();
+        assertFalse(metaHandler.hasLink(hubItem, "users"));
+
+        final ResourceLink usersLink = new ResourceLink();
+        usersLink.rel = "users";
+        usersLink.href = "http://hub-server.com/api/users";
+        hubItem._meta.links.add(usersLink);
+        assertEquals("http://hub-server.com/api/users", metaHandler.getFirstLink(hubItem, "users"));
+
+        hubItem._meta.links = new ArrayList<>();
+        assertFalse(metaHandler.hasLink(hubItem, "canonicalVersion"));
+        assertFalse(metaHandler.hasLink(hubItem, "users"));
+    }
+
+    @Test
+    public void testRepeatedLookupsFollowReplacedLinks() throws Exception {
+        final MetaHandler metaHandler = getMetaHandler();
+        final HubView hubItem = getTestHubItem();
+        final HubView otherHubItem = getTestHubItem();
+        otherHubItem._meta.links.get(0).href = "http://hub-server.com/api/projects/other";
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("http://hub-server.com/api/projects/acae7891-cabb-4186-87ff-d650abb10a38/versions/96497043-89f9-4ae7-8b5a-e9945e0a57cf", metaHandler.getFirstLink(hubItem, "canonicalVersion"));
+            assertEquals(2, metaHandler.getLinks(hubItem, "canonicalVersion").size());
+        }
+        assertEquals("http://hub-server.com/api/projects/other", metaHandler.getFirstLink(otherHubItem, "canonicalVersion"));
+        assertEquals("http://hub-server.com/api/projects/other", metaHandler.getFirstLink(otherHubItem, "canonicalVersion"));
+
+        // a new list of the same size
+        final ResourceLink versionsLink = new ResourceLink();
+        versionsLink.rel = "versions";
+        versionsLink.href = "http://hub-server.com/api/projects/acae7891-cabb-4186-87ff-d650abb10a38/versions";
+        final ResourceLink canonicalVersionLink = new ResourceLink();
+        canonicalVersionLink.rel = "canonicalVersion";
+        canonicalVersionLink.href = "http://hub-server.com/api/projects/acae7891-cabb-4186-87ff-d650abb10a38/versions/replaced";
+        final List<ResourceLink> replacedLinks = new ArrayList<>();
+        replacedLinks.add(versionsLink);
+        replacedLinks.add(canonicalVersionLink);
+        otherHubItem._meta.links = replacedLinks;
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(canonicalVersionLink.href, metaHandler.getFirstLink(otherHubItem, "canonicalVersion"));
+            assertEquals(versionsLink.href, metaHandler.getFirstLink(otherHubItem, "versions"));
+        }
+        assertEquals(1, metaHandler.getLinks(otherHubItem, "canonicalVersion").size());
+    }
+
 }
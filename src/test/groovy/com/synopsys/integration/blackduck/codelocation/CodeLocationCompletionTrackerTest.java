@@ -0,0 +1,86 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.codelocation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.synopsys.integration.blackduck.api.core.ResourceMetadata;
+import com.synopsys.integration.blackduck.api.generated.view.CodeLocationView;
+import com.synopsys.integration.blackduck.api.generated.view.NotificationView;
+
+public class CodeLocationCompletionTrackerTest {
+    @Test
+    public void testCompletionFromCodeLocationsAndNotifications() {
+        final Date startDate = new Date(1000);
+        final CodeLocationCompletionTracker tracker = new CodeLocationCompletionTracker(new HashSet<>(Arrays.asList("first", "second")), startDate, new Date(100000));
+        assertEquals(new HashSet<>(Arrays.asList("first", "second")), tracker.getUnresolvedCodeLocationNames());
+
+        // the notification of a code location that is not found by name yet still counts once it is
+        assertTrue(tracker.addNotifications(Collections.singletonList(createNotification("http://hub/api/codelocations/2", 2000))));
+        assertEquals(new Date(2000), tracker.getNotificationStartDate());
+
+        final Map<String, CodeLocationView> codeLocationsByName = new HashMap<>();
+        codeLocationsByName.put("first", createCodeLocation("first", "http://hub/api/codelocations/1"));
+        assertTrue(tracker.addCodeLocations(codeLocationsByName));
+        assertFalse(tracker.addCodeLocations(codeLocationsByName));
+        assertEquals(Collections.singleton("second"), tracker.getUnresolvedCodeLocationNames());
+        assertFalse(tracker.isComplete());
+
+        codeLocationsByName.put("second", createCodeLocation("second", "http://hub/api/codelocations/2"));
+        assertTrue(tracker.addCodeLocations(codeLocationsByName));
+        assertEquals(1, tracker.getCompletedCount());
+        assertFalse(tracker.isComplete());
+
+        // seeing the same notification again on the start date boundary is not progress
+        assertFalse(tracker.addNotifications(Collections.singletonList(createNotification("http://hub/api/codelocations/2", 2000))));
+        assertTrue(tracker.addNotifications(Arrays.asList(createNotification("http://hub/api/codelocations/1", 3000), createNotification("http://hub/api/codelocations/3", 2500))));
+        assertEquals(new Date(3000), tracker.getNotificationStartDate());
+        assertTrue(tracker.isComplete());
+    }
+
+    private CodeLocationView createCodeLocation(final String name, final String href) {
+        final CodeLocationView codeLocationView = new CodeLocationView();
+        codeLocationView.name = name;
+        codeLocationView._meta = new ResourceMetadata();
+        codeLocationView._meta.href = href;
+        return codeLocationView;
+    }
+
+    private NotificationView createNotification(final String codeLocationUrl, final long createdAt) {
+        final NotificationView notificationView = new NotificationView();
+        notificationView.createdAt = new Date(createdAt);
+        notificationView.json = "{\"content\":{\"codeLocation\":\"" + codeLocationUrl + "\"}}";
+        return notificationView;
+    }
+
+}
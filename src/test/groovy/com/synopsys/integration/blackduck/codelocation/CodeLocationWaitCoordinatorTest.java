@@ -0,0 +1,196 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.codelocation;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.synopsys.integration.blackduck.api.generated.view.NotificationView;
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.blackduck.exception.HubTimeoutExceededException;
+import com.synopsys.integration.blackduck.service.CodeLocationService;
+import com.synopsys.integration.blackduck.service.HubService;
+import com.synopsys.integration.blackduck.service.NotificationService;
+import com.synopsys.integration.blackduck.service.model.NotificationTaskRange;
+import com.synopsys.integration.log.BufferedIntLogger;
+
+public class CodeLocationWaitCoordinatorTest {
+    private ScheduledExecutorService scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testWaitsShareRequests() throws Exception {
+        final CodeLocationService codeLocationService = Mockito.mock(CodeLocationService.class);
+        Mockito.when(codeLocationService.getCodeLocationUrlsByNames(Mockito.any())).thenAnswer(invocation -> {
+            final Map<String, String> codeLocationUrlsByName = new HashMap<>();
+            for (final String name : invocation.<Set<String>>getArgument(0)) {
+                codeLocationUrlsByName.put(name, "http://hub/api/codelocations/" + name);
+            }
+            return codeLocationUrlsByName;
+        });
+
+        // the first tick sees the BOMs of all but the last code location, the second tick sees that one too
+        final List<NotificationView> firstNotifications = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            firstNotifications.add(createNotification("codelocation" + i, 2000 + i));
+        }
+        final NotificationService notificationService = Mockito.mock(NotificationService.class);
+        Mockito.when(notificationService.getFilteredNotifications(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(firstNotifications, Collections.singletonList(createNotification("codelocation9", 3000)), Collections.emptyList());
+
+        final CodeLocationCreationService codeLocationCreationService = new CodeLocationCreationService(Mockito.mock(HubService.class), new BufferedIntLogger(), codeLocationService, notificationService);
+        final CodeLocationWaitCoordinator coordinator = new CodeLocationWaitCoordinator(new BufferedIntLogger(), codeLocationCreationService, scheduler);
+
+        // holding the scheduler until every wait is registered, so they all share the first tick
+        final CompletableFuture<Void> gate = new CompletableFuture<>();
+        scheduler.execute(gate::join);
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final NotificationTaskRange range = new NotificationTaskRange(System.currentTimeMillis(), new Date(1000), new Date(100000));
+            futures.add(coordinator.waitForCodeLocations(range, Collections.singleton("codelocation" + i), 60));
+        }
+        gate.complete(null);
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(0, coordinator.getOutstandingWaitCount());
+        Mockito.verify(codeLocationService, Mockito.times(1)).getCodeLocationUrlsByNames(Mockito.any());
+        Mockito.verify(notificationService, Mockito.times(2)).getFilteredNotifications(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        final CodeLocationService codeLocationService = Mockito.mock(CodeLocationService.class);
+        Mockito.when(codeLocationService.getCodeLocationUrlsByNames(Mockito.any())).thenReturn(Collections.emptyMap());
+        final NotificationService notificationService = Mockito.mock(NotificationService.class);
+        Mockito.when(notificationService.getFilteredNotifications(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(Collections.emptyList());
+
+        final CodeLocationCreationService codeLocationCreationService = new CodeLocationCreationService(Mockito.mock(HubService.class), new BufferedIntLogger(), codeLocationService, notificationService);
+        final CodeLocationWaitCoordinator coordinator = new CodeLocationWaitCoordinator(new BufferedIntLogger(), codeLocationCreationService, scheduler);
+
+        final NotificationTaskRange range = new NotificationTaskRange(System.currentTimeMillis(), new Date(1000), new Date(100000));
+        final CompletableFuture<Void> future = coordinator.waitForCodeLocations(range, Collections.singleton("missing"), 1);
+
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof HubTimeoutExceededException);
+        assertEquals(0, coordinator.getOutstandingWaitCount());
+    }
+
+    @Test
+    public void testCallbackCanRegisterNewWait() throws Exception {
+        final CodeLocationService codeLocationService = Mockito.mock(CodeLocationService.class);
+        Mockito.when(codeLocationService.getCodeLocationUrlsByNames(Mockito.any())).thenAnswer(invocation -> {
+            final Map<String, String> codeLocationUrlsByName = new HashMap<>();
+            for (final String name : invocation.<Set<String>>getArgument(0)) {
+                codeLocationUrlsByName.put(name, "http://hub/api/codelocations/" + name);
+            }
+            return codeLocationUrlsByName;
+        });
+        final NotificationService notificationService = Mockito.mock(NotificationService.class);
+        Mockito.when(notificationService.getFilteredNotifications(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(Collections.singletonList(createNotification("first", 2000)), Collections.singletonList(createNotification("second", 3000)));
+
+        final CodeLocationCreationService codeLocationCreationService = new CodeLocationCreationService(Mockito.mock(HubService.class), new BufferedIntLogger(), codeLocationService, notificationService);
+        final CodeLocationWaitCoordinator coordinator = new CodeLocationWaitCoordinator(new BufferedIntLogger(), codeLocationCreationService, scheduler);
+
+        final NotificationTaskRange range = new NotificationTaskRange(System.currentTimeMillis(), new Date(1000), new Date(100000));
+        // the second wait is registered by the callback of the first, on the scheduler thread, while the first tick is finishing
+        final CompletableFuture<Void> future = coordinator.waitForCodeLocations(range, Collections.singleton("first"), 60)
+                                                       .thenCompose(ignored -> coordinator.waitForCodeLocations(range, Collections.singleton("second"), 60));
+
+        future.get(10, TimeUnit.SECONDS);
+        assertEquals(0, coordinator.getOutstandingWaitCount());
+    }
+
+    @Test
+    public void testFailedCheckIsRetried() throws Exception {
+        final CodeLocationService codeLocationService = Mockito.mock(CodeLocationService.class);
+        Mockito.when(codeLocationService.getCodeLocationUrlsByNames(Mockito.any()))
+                .thenThrow(new HubIntegrationException("temporarily unavailable"))
+                .thenReturn(Collections.singletonMap("codelocation", "http://hub/api/codelocations/codelocation"));
+        final NotificationService notificationService = Mockito.mock(NotificationService.class);
+        Mockito.when(notificationService.getFilteredNotifications(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(Collections.singletonList(createNotification("codelocation", 2000)));
+
+        final CodeLocationCreationService codeLocationCreationService = new CodeLocationCreationService(Mockito.mock(HubService.class), new BufferedIntLogger(), codeLocationService, notificationService);
+        final CodeLocationWaitCoordinator coordinator = new CodeLocationWaitCoordinator(new BufferedIntLogger(), codeLocationCreationService, scheduler);
+
+        final NotificationTaskRange range = new NotificationTaskRange(System.currentTimeMillis(), new Date(1000), new Date(100000));
+        coordinator.waitForCodeLocations(range, Collections.singleton("codelocation"), 60).get(10, TimeUnit.SECONDS);
+
+        assertEquals(0, coordinator.getOutstandingWaitCount());
+        Mockito.verify(codeLocationService, Mockito.times(2)).getCodeLocationUrlsByNames(Mockito.any());
+    }
+
+    @Test
+    public void testFailingChecksTimeOut() throws Exception {
+        final CodeLocationService codeLocationService = Mockito.mock(CodeLocationService.class);
+        final HubIntegrationException failure = new HubIntegrationException("unavailable");
+        Mockito.when(codeLocationService.getCodeLocationUrlsByNames(Mockito.any())).thenThrow(failure);
+
+        final CodeLocationCreationService codeLocationCreationService = new CodeLocationCreationService(Mockito.mock(HubService.class), new BufferedIntLogger(), codeLocationService,
+                Mockito.mock(NotificationService.class));
+        final CodeLocationWaitCoordinator coordinator = new CodeLocationWaitCoordinator(new BufferedIntLogger(), codeLocationCreationService, scheduler);
+
+        final NotificationTaskRange range = new NotificationTaskRange(System.currentTimeMillis(), new Date(1000), new Date(100000));
+        final CompletableFuture<Void> future = coordinator.waitForCodeLocations(range, Collections.singleton("codelocation"), 1);
+
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof HubTimeoutExceededException);
+        assertSame(failure, e.getCause().getCause());
+        assertEquals(0, coordinator.getOutstandingWaitCount());
+    }
+
+    private NotificationView createNotification(final String codeLocationName, final long createdAt) {
+        final NotificationView notificationView = new NotificationView();
+        notificationView.createdAt = new Date(createdAt);
+        notificationView.json = "{\"content\":{\"codeLocation\":\"http://hub/api/codelocations/" + codeLocationName + "\"}}";
+        return notificationView;
+    }
+
+}
@@ -0,0 +1,70 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.codelocation.bdioupload;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import com.synopsys.integration.blackduck.codelocation.Result;
+import com.synopsys.integration.blackduck.service.HubService;
+import com.synopsys.integration.rest.body.FileBodyContent;
+import com.synopsys.integration.rest.request.Request;
+import com.synopsys.integration.rest.request.Response;
+
+public class UploadCallableTest {
+    @Test
+    public void testUploadStreamsFile() throws Exception {
+        final File uploadFile = Files.createTempFile("bdio", ".jsonld").toFile();
+        uploadFile.deleteOnExit();
+        final HubService hubService = Mockito.mock(HubService.class);
+        Mockito.when(hubService.getUri(HubService.BOMIMPORT_PATH)).thenReturn("http://hub-server.com/api/bom-import");
+        final Response response = Mockito.mock(Response.class);
+        Mockito.when(response.getContentString()).thenReturn("uploaded");
+        Mockito.when(hubService.executeRequest(Mockito.any(Request.class))).thenReturn(response);
+
+        final UploadOutput uploadOutput = new UploadCallable(hubService, UploadTarget.createDefault("codelocation", uploadFile)).call();
+
+        assertEquals(Result.SUCCESS, uploadOutput.getResult());
+        final ArgumentCaptor<Request> requestCaptor = ArgumentCaptor.forClass(Request.class);
+        Mockito.verify(hubService).executeRequest(requestCaptor.capture());
+        assertEquals("http://hub-server.com/api/bom-import", requestCaptor.getValue().getUri());
+        assertTrue(requestCaptor.getValue().getBodyContent() instanceof FileBodyContent);
+    }
+
+    @Test
+    public void testMissingFileFails() throws Exception {
+        final HubService hubService = Mockito.mock(HubService.class);
+        final UploadOutput uploadOutput = new UploadCallable(hubService, UploadTarget.createDefault("codelocation", new File("does-not-exist.jsonld"))).call();
+
+        assertEquals(Result.FAILURE, uploadOutput.getResult());
+        Mockito.verify(hubService, Mockito.never()).executeRequest(Mockito.any(Request.class));
+    }
+
+}
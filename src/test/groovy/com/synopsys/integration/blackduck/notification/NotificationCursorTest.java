@@ -0,0 +1,84 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.notification;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.synopsys.integration.blackduck.api.core.ResourceMetadata;
+import com.synopsys.integration.blackduck.api.generated.view.NotificationView;
+import com.synopsys.integration.blackduck.service.NotificationService;
+
+public class NotificationCursorTest {
+    @Test
+    public void testOnlyNewNotificationsAreReturned() throws Exception {
+        final NotificationView first = createNotification("first", 1000);
+        final NotificationView second = createNotification("second", 2000);
+        final NotificationView third = createNotification("third", 2000);
+        final NotificationView fourth = createNotification("fourth", 3000);
+
+        final NotificationService notificationService = Mockito.mock(NotificationService.class);
+        Mockito.when(notificationService.getLatestNotificationDate()).thenReturn(new Date(1000));
+        Mockito.when(notificationService.getAllNotifications(Mockito.eq(new Date(1000)), Mockito.any(Date.class))).thenReturn(Arrays.asList(second, first));
+        Mockito.when(notificationService.getAllNotifications(Mockito.eq(new Date(2000)), Mockito.any(Date.class))).thenReturn(Arrays.asList(fourth, third, second));
+
+        final File checkpointDirectory = Files.createTempDirectory(null).toFile();
+        try {
+            final File checkpointFile = new File(checkpointDirectory, "checkpoint");
+            final NotificationCursor cursor = new NotificationCursor(notificationService, checkpointFile);
+            assertEquals(Arrays.asList(second, first), cursor.pollNext());
+            assertEquals(new Date(2000), cursor.getLatestCreatedAt().get());
+            assertTrue(checkpointFile.isFile());
+
+            // a new cursor on the same checkpoint must not return 'second' again, but must return 'third' even though it shares second's createdAt
+            final NotificationCursor restartedCursor = new NotificationCursor(notificationService, checkpointFile);
+            assertEquals(Arrays.asList(fourth, third), restartedCursor.pollNext());
+            assertEquals(new Date(3000), restartedCursor.getLatestCreatedAt().get());
+
+            Mockito.when(notificationService.getAllNotifications(Mockito.eq(new Date(3000)), Mockito.any(Date.class))).thenReturn(Collections.singletonList(fourth));
+            assertTrue(restartedCursor.pollNext().isEmpty());
+        } finally {
+            FileUtils.deleteQuietly(checkpointDirectory);
+        }
+    }
+
+    private NotificationView createNotification(final String name, final long createdAt) {
+        final NotificationView notificationView = new NotificationView();
+        notificationView.createdAt = new Date(createdAt);
+        notificationView._meta = new ResourceMetadata();
+        notificationView._meta.href = "http://hub-server.com/api/notifications/" + name;
+        return notificationView;
+    }
+
+}
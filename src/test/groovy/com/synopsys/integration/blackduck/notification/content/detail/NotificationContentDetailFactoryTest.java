@@ -0,0 +1,68 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.notification.content.detail;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.synopsys.integration.blackduck.api.generated.enumeration.NotificationType;
+import com.synopsys.integration.blackduck.api.generated.view.NotificationView;
+import com.synopsys.integration.blackduck.notification.CommonNotificationView;
+import com.synopsys.integration.blackduck.notification.NotificationDetailResult;
+import com.synopsys.integration.blackduck.notification.content.BomEditContent;
+
+public class NotificationContentDetailFactoryTest {
+    @Test
+    public void testBulkDetailsKeepTheirOrder() {
+        final NotificationContentDetailFactory notificationContentDetailFactory = new NotificationContentDetailFactory(new Gson());
+        final List<CommonNotificationView> views = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final NotificationView notificationView = new NotificationView();
+            notificationView.type = NotificationType.BOM_EDIT;
+            notificationView.createdAt = new Date(i);
+            notificationView.json = "{\"type\":\"BOM_EDIT\",\"contentType\":\"application/json\",\"content\":{\"bomComponent\":\"bomComponent" + i + "\"},\"createdAt\":\"2018-01-01T00:00:00.000Z\"}";
+            views.add(new CommonNotificationView(notificationView));
+        }
+
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            final List<NotificationDetailResult> results = notificationContentDetailFactory.generateContentDetails(views, forkJoinPool);
+            assertEquals(views.size(), results.size());
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals("bomComponent" + i, ((BomEditContent) results.get(i).getNotificationContent()).bomComponent);
+                assertEquals(NotificationContentDetail.CONTENT_KEY_GROUP_BOM_EDIT, results.get(i).getNotificationGroup());
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+}
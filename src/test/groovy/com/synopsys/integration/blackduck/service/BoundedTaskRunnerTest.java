@@ -0,0 +1,144 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.exception.IntegrationException;
+
+public class BoundedTaskRunnerTest {
+    private ExecutorService executorService;
+
+    @BeforeEach
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testResultsKeepTaskOrder() throws Exception {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final int taskNumber = i;
+            tasks.add(() -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                // the earlier tasks finish last
+                Thread.sleep(20 - taskNumber);
+                inFlight.decrementAndGet();
+                return taskNumber;
+            });
+        }
+
+        final List<Integer> results = BoundedTaskRunner.callAll(Optional.of(executorService), 3, tasks, "numbers");
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, results.get(i).intValue());
+        }
+        assertTrue(maxInFlight.get() <= 3);
+    }
+
+    @Test
+    public void testSequentialWithoutExecutor() throws Exception {
+        final List<String> threadNames = new ArrayList<>();
+        final List<Callable<String>> tasks = Arrays.asList(() -> "first", () -> {
+            threadNames.add(Thread.currentThread().getName());
+            return "second";
+        });
+
+        assertEquals(Arrays.asList("first", "second"), BoundedTaskRunner.callAll(Optional.empty(), 4, tasks, "strings"));
+        assertEquals(Arrays.asList(Thread.currentThread().getName()), threadNames);
+    }
+
+    @Test
+    public void testFailureIsThrownAndRemainingTasksAreCancelled() throws Exception {
+        final CountDownLatch slowTaskStarted = new CountDownLatch(1);
+        final AtomicBoolean slowTaskInterrupted = new AtomicBoolean();
+        final AtomicInteger startedTasks = new AtomicInteger();
+        final List<Callable<String>> tasks = new ArrayList<>();
+        tasks.add(() -> {
+            startedTasks.incrementAndGet();
+            slowTaskStarted.await();
+            throw new HubIntegrationException("first task failed");
+        });
+        tasks.add(() -> {
+            startedTasks.incrementAndGet();
+            slowTaskStarted.countDown();
+            try {
+                Thread.sleep(10000);
+            } catch (final InterruptedException e) {
+                slowTaskInterrupted.set(true);
+                throw e;
+            }
+            return "slow";
+        });
+        for (int i = 0; i < 10; i++) {
+            tasks.add(() -> {
+                startedTasks.incrementAndGet();
+                return "never";
+            });
+        }
+
+        final IntegrationException e = assertThrows(IntegrationException.class, () -> BoundedTaskRunner.callAll(Optional.of(executorService), 2, tasks, "strings"));
+        assertEquals("first task failed", e.getMessage());
+
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(slowTaskInterrupted.get());
+        assertEquals(2, startedTasks.get());
+    }
+
+    @Test
+    public void testRuntimeFailureIsWrapped() {
+        final List<Callable<String>> tasks = Arrays.asList(() -> "first", () -> {
+            throw new IllegalStateException("broken");
+        });
+
+        final HubIntegrationException e = assertThrows(HubIntegrationException.class, () -> BoundedTaskRunner.callAll(Optional.of(executorService), 2, tasks, "strings"));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+}
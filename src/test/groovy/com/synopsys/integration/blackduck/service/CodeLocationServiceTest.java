@@ -0,0 +1,127 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.synopsys.integration.blackduck.api.core.ResourceMetadata;
+import com.synopsys.integration.blackduck.api.generated.discovery.ApiDiscovery;
+import com.synopsys.integration.blackduck.api.generated.view.CodeLocationView;
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.blackduck.service.model.CodeLocationBulkResult;
+import com.synopsys.integration.log.BufferedIntLogger;
+import com.synopsys.integration.rest.request.Request;
+import com.synopsys.integration.rest.request.Response;
+
+public class CodeLocationServiceTest {
+    @Test
+    public void testCodeLocationsByNames() throws Exception {
+        final HubService hubService = Mockito.mock(HubService.class);
+        Mockito.when(hubService.getAllResponses(ApiDiscovery.CODELOCATIONS_LINK_RESPONSE)).thenReturn(Arrays.asList(createCodeLocation("first"), createCodeLocation("second"), createCodeLocation("third")));
+
+        final CodeLocationService codeLocationService = new CodeLocationService(hubService, new BufferedIntLogger());
+        final Map<String, CodeLocationView> codeLocationsByName = codeLocationService.getCodeLocationsByNames(new HashSet<>(Arrays.asList("first", "third", "missing")));
+
+        assertEquals(new HashSet<>(Arrays.asList("first", "third")), codeLocationsByName.keySet());
+        assertEquals("http://hub/api/codelocations/third", codeLocationsByName.get("third")._meta.href);
+        Mockito.verify(hubService, Mockito.times(1)).getAllResponses(ApiDiscovery.CODELOCATIONS_LINK_RESPONSE);
+    }
+
+    @Test
+    public void testCachedCodeLocationUrls() throws Exception {
+        final HubService hubService = Mockito.mock(HubService.class);
+        Mockito.when(hubService.getAllResponses(ApiDiscovery.CODELOCATIONS_LINK_RESPONSE)).thenReturn(Arrays.asList(createCodeLocation("first"), createCodeLocation("second"), createCodeLocation("third")));
+
+        final CodeLocationService codeLocationService = new CodeLocationService(hubService, new BufferedIntLogger(), 60 * 1000);
+        assertEquals(Collections.singleton("first"), codeLocationService.getCodeLocationUrlsByNames(new HashSet<>(Arrays.asList("first", "missing"))).keySet());
+
+        // the other code locations of the first listing are cached as well
+        final Map<String, String> codeLocationUrlsByName = codeLocationService.getCodeLocationUrlsByNames(new HashSet<>(Arrays.asList("second", "third")));
+        assertEquals("http://hub/api/codelocations/second", codeLocationUrlsByName.get("second"));
+        assertEquals("http://hub/api/codelocations/third", codeLocationUrlsByName.get("third"));
+        Mockito.verify(hubService, Mockito.times(1)).getAllResponses(ApiDiscovery.CODELOCATIONS_LINK_RESPONSE);
+
+        // a deleted code location is no longer cached
+        codeLocationService.deleteCodeLocation("http://hub/api/codelocations/second");
+        codeLocationService.getCodeLocationUrlsByNames(Collections.singleton("second"));
+        Mockito.verify(hubService, Mockito.times(1)).getAllResponses(Mockito.eq(ApiDiscovery.CODELOCATIONS_LINK_RESPONSE), Mockito.any(Request.Builder.class));
+    }
+
+    @Test
+    public void testBulkDeleteReportsEachCodeLocation() throws Exception {
+        final HubService hubService = Mockito.mock(HubService.class);
+        final List<CodeLocationView> codeLocationViews = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final CodeLocationView codeLocationView = createCodeLocation("codelocation" + i);
+            Mockito.when(hubService.getHref(codeLocationView)).thenReturn(codeLocationView._meta.href);
+            codeLocationViews.add(codeLocationView);
+        }
+        final AtomicInteger deleteCount = new AtomicInteger();
+        Mockito.when(hubService.executeRequest(Mockito.any(Request.class))).thenAnswer(invocation -> {
+            if (invocation.<Request>getArgument(0).getUri().endsWith("/codelocation7")) {
+                throw new HubIntegrationException("delete failed");
+            }
+            deleteCount.incrementAndGet();
+            return Mockito.mock(Response.class);
+        });
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            final CodeLocationService codeLocationService = new CodeLocationService(hubService, new BufferedIntLogger(), CodeLocationService.NO_CACHE, executorService, 4, 1000.0);
+            final List<CodeLocationBulkResult> results = codeLocationService.bulkDeleteCodeLocations(codeLocationViews);
+
+            assertEquals(20, results.size());
+            assertEquals(19, deleteCount.get());
+            for (int i = 0; i < 20; i++) {
+                assertSame(codeLocationViews.get(i), results.get(i).getCodeLocationView());
+                assertEquals(i != 7, results.get(i).isSuccess());
+            }
+            assertEquals("delete failed", results.get(7).getException().get().getMessage());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private CodeLocationView createCodeLocation(final String name) {
+        final CodeLocationView codeLocationView = new CodeLocationView();
+        codeLocationView.name = name;
+        codeLocationView._meta = new ResourceMetadata();
+        codeLocationView._meta.href = "http://hub/api/codelocations/" + name;
+        return codeLocationView;
+    }
+
+}
@@ -0,0 +1,80 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.synopsys.integration.blackduck.api.generated.enumeration.NotificationType;
+import com.synopsys.integration.blackduck.api.generated.view.NotificationView;
+import com.synopsys.integration.blackduck.notification.CommonNotificationView;
+import com.synopsys.integration.blackduck.notification.NotificationDetailResults;
+import com.synopsys.integration.blackduck.notification.content.BomEditContent;
+import com.synopsys.integration.blackduck.notification.content.detail.NotificationContentDetailFactory;
+
+public class CommonNotificationServiceTest {
+    private final NotificationContentDetailFactory notificationContentDetailFactory = new NotificationContentDetailFactory(new Gson());
+
+    @Test
+    public void testMergeKeepsMostRecentFirst() {
+        final CommonNotificationService commonNotificationService = new CommonNotificationService(notificationContentDetailFactory, false);
+        final List<CommonNotificationView> first = Arrays.asList(createView("a", 5), createView("b", 3), createView("c", 1));
+        final List<CommonNotificationView> second = Arrays.asList(createView("d", 4), createView("e", 3), createView("f", 0));
+
+        final List<CommonNotificationView> merged = commonNotificationService.mergeCommonNotifications(Arrays.asList(first, second));
+        assertEquals(Arrays.asList("a", "d", "b", "e", "c", "f"), merged.stream().map(this::getName).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testOldestFirstKeepsTheOrderOfTies() throws Exception {
+        final CommonNotificationService commonNotificationService = new CommonNotificationService(notificationContentDetailFactory, true);
+        final List<CommonNotificationView> views = Arrays.asList(createView("a", 3), createView("b", 2), createView("c", 2), createView("d", 1));
+
+        final NotificationDetailResults results = commonNotificationService.getNotificationDetailResults(views);
+        final List<String> names = results.getResults().stream().map(result -> ((BomEditContent) result.getNotificationContent()).bomComponent).collect(Collectors.toList());
+        assertEquals(Arrays.asList("d", "b", "c", "a"), names);
+        assertEquals(new Date(3), results.getLatestNotificationCreatedAtDate().get());
+        assertEquals("1970-01-01T00:00:00.003Z", results.getLatestNotificationCreatedAtString().get());
+    }
+
+    private CommonNotificationView createView(final String name, final long createdAt) {
+        final NotificationView notificationView = new NotificationView();
+        notificationView.type = NotificationType.BOM_EDIT;
+        notificationView.createdAt = new Date(createdAt);
+        notificationView.json = "{\"content\":{\"bomComponent\":\"" + name + "\"}}";
+        return new CommonNotificationView(notificationView);
+    }
+
+    private String getName(final CommonNotificationView view) {
+        return view.json.substring(view.json.indexOf(":\"") + 2, view.json.lastIndexOf('"'));
+    }
+
+}
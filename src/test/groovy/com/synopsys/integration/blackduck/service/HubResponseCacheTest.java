@@ -0,0 +1,160 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.synopsys.integration.blackduck.api.generated.view.ComponentVersionView;
+import com.synopsys.integration.blackduck.api.generated.view.ReportView;
+import com.synopsys.integration.blackduck.rest.BlackDuckRestConnection;
+import com.synopsys.integration.log.BufferedIntLogger;
+import com.synopsys.integration.rest.exception.IntegrationRestException;
+import com.synopsys.integration.rest.request.Request;
+import com.synopsys.integration.rest.request.Response;
+
+public class HubResponseCacheTest {
+    private File cacheDirectory;
+
+    @BeforeEach
+    public void createCacheDirectory() throws Exception {
+        cacheDirectory = Files.createTempDirectory(null).toFile();
+    }
+
+    @AfterEach
+    public void deleteCacheDirectory() {
+        FileUtils.deleteQuietly(cacheDirectory);
+    }
+
+    @Test
+    public void testRevalidatedResponseIsReused() throws Exception {
+        final Request request = createRequest("http://hub-server.com/api/components/1");
+        final Response response = createResponse("{\"name\":\"component\"}", "\"etag-1\"");
+        Mockito.when(response.getHeaderValue("Last-Modified")).thenReturn("Wed, 21 Oct 2015 07:28:00 GMT");
+        final BlackDuckRestConnection restConnection = Mockito.mock(BlackDuckRestConnection.class);
+        Mockito.when(restConnection.executeRequest(request)).thenReturn(response);
+        final IntegrationRestException notModified = Mockito.mock(IntegrationRestException.class);
+        Mockito.when(notModified.getHttpStatusCode()).thenReturn(304);
+        Mockito.when(restConnection.executeRequest(Mockito.argThat((Request conditionalRequest) -> conditionalRequest != request))).thenThrow(notModified);
+
+        assertEquals("{\"name\":\"component\"}", createCache().getResponseJson(restConnection, request));
+        // a new cache on the same directory, as in a later run
+        assertEquals("{\"name\":\"component\"}", createCache().getResponseJson(restConnection, request));
+
+        Mockito.verify(restConnection, Mockito.times(1)).executeRequest(request);
+        Mockito.verify(restConnection, Mockito.times(1)).executeRequest(Mockito.argThat((Request conditionalRequest) -> conditionalRequest != request
+                && "\"etag-1\"".equals(conditionalRequest.getAdditionalHeaders().get("If-None-Match"))
+                && "Wed, 21 Oct 2015 07:28:00 GMT".equals(conditionalRequest.getAdditionalHeaders().get("If-Modified-Since"))));
+    }
+
+    @Test
+    public void testChangedETagOnlyResponseIsReplaced() throws Exception {
+        final Request request = createRequest("http://hub-server.com/api/components/2");
+        final Response firstResponse = createResponse("{\"name\":\"first\"}", "\"etag-1\"");
+        final Response changedResponse = createResponse("{\"name\":\"changed\"}", "\"etag-2\"");
+        final Response notModifiedResponse = Mockito.mock(Response.class);
+        Mockito.when(notModifiedResponse.getStatusCode()).thenReturn(304);
+        final BlackDuckRestConnection restConnection = Mockito.mock(BlackDuckRestConnection.class);
+        Mockito.when(restConnection.executeRequest(request)).thenReturn(firstResponse);
+        Mockito.when(restConnection.executeRequest(Mockito.argThat((Request conditionalRequest) -> null != conditionalRequest && "\"etag-1\"".equals(conditionalRequest.getAdditionalHeaders().get("If-None-Match")))))
+                .thenReturn(changedResponse);
+        Mockito.when(restConnection.executeRequest(Mockito.argThat((Request conditionalRequest) -> null != conditionalRequest && "\"etag-2\"".equals(conditionalRequest.getAdditionalHeaders().get("If-None-Match")))))
+                .thenReturn(notModifiedResponse);
+
+        final HubResponseCache hubResponseCache = createCache();
+        assertEquals("{\"name\":\"first\"}", hubResponseCache.getResponseJson(restConnection, request));
+        assertEquals("{\"name\":\"changed\"}", hubResponseCache.getResponseJson(restConnection, request));
+        assertEquals("{\"name\":\"changed\"}", hubResponseCache.getResponseJson(restConnection, request));
+
+        Mockito.verify(restConnection, Mockito.times(3)).executeRequest(Mockito.any(Request.class));
+    }
+
+    @Test
+    public void testOnlyIncludedResponsesAreCached() {
+        final HubResponseCache hubResponseCache = new HubResponseCache(cacheDirectory, Collections.singleton(ComponentVersionView.class), Collections.singleton("http://hub-server.com/api/licenses/"),
+                new BufferedIntLogger());
+
+        assertTrue(hubResponseCache.isCached("http://hub-server.com/api/components/1/versions/1", ComponentVersionView.class));
+        assertTrue(hubResponseCache.isCached("http://hub-server.com/api/licenses/1", ReportView.class));
+        assertFalse(hubResponseCache.isCached("http://hub-server.com/api/reports/1", ReportView.class));
+    }
+
+    @Test
+    public void testFreshResponseNeedsNoRequest() throws Exception {
+        final Request request = createRequest("http://hub-server.com/api/licenses/1");
+        final Response response = createResponse("{\"name\":\"license\"}", null);
+        final BlackDuckRestConnection restConnection = Mockito.mock(BlackDuckRestConnection.class);
+        Mockito.when(restConnection.executeRequest(request)).thenReturn(response);
+
+        final HubResponseCache hubResponseCache = new HubResponseCache(cacheDirectory, HubResponseCache.DEFAULT_MAX_BYTES, 60 * 1000, Collections.emptySet(), Collections.emptySet(), new BufferedIntLogger());
+        hubResponseCache.getResponseJson(restConnection, request);
+        assertEquals("{\"name\":\"license\"}", hubResponseCache.getResponseJson(restConnection, request));
+
+        Mockito.verify(restConnection, Mockito.times(1)).executeRequest(Mockito.any(Request.class));
+    }
+
+    @Test
+    public void testOldestResponsesAreEvicted() throws Exception {
+        final BlackDuckRestConnection restConnection = Mockito.mock(BlackDuckRestConnection.class);
+        final HubResponseCache hubResponseCache = new HubResponseCache(cacheDirectory, 400, 0, Collections.emptySet(), Collections.emptySet(), new BufferedIntLogger());
+        for (int i = 0; i < 5; i++) {
+            final Request request = createRequest("http://hub-server.com/api/policy-rules/" + i);
+            final Response response = createResponse("{\"name\":\"policy rule " + i + "\"}", "\"etag-" + i + "\"");
+            Mockito.when(restConnection.executeRequest(request)).thenReturn(response);
+            hubResponseCache.getResponseJson(restConnection, request);
+        }
+
+        final long cachedBytes = FileUtils.sizeOfDirectory(cacheDirectory);
+        assertTrue(cachedBytes <= 400, "The cache should have stayed under its limit but was " + cachedBytes);
+        assertTrue(cacheDirectory.listFiles().length > 0);
+    }
+
+    private HubResponseCache createCache() {
+        return new HubResponseCache(cacheDirectory, Collections.emptySet(), Collections.singleton("http://hub-server.com/api/components/"), new BufferedIntLogger());
+    }
+
+    private Request createRequest(final String uri) {
+        final Request request = Mockito.mock(Request.class);
+        Mockito.when(request.getUri()).thenReturn(uri);
+        Mockito.when(request.getMimeType()).thenReturn("application/json");
+        return request;
+    }
+
+    private Response createResponse(final String json, final String eTag) throws Exception {
+        final Response response = Mockito.mock(Response.class);
+        Mockito.when(response.getContentString()).thenReturn(json);
+        Mockito.when(response.getHeaderValue("ETag")).thenReturn(eTag);
+        return response;
+    }
+
+}
@@ -0,0 +1,142 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.gson.Gson;
+import com.synopsys.integration.blackduck.api.generated.view.ProjectView;
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.blackduck.rest.BlackDuckRestConnection;
+import com.synopsys.integration.blackduck.service.model.PagedRequest;
+import com.synopsys.integration.blackduck.service.model.RequestFactory;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.log.BufferedIntLogger;
+import com.synopsys.integration.rest.request.Request;
+import com.synopsys.integration.rest.request.Response;
+
+public class HubResponsesTransformerTest {
+    private static final int TOTAL_COUNT = 9;
+    private static final int LIMIT = 2;
+
+    private ExecutorService executorService;
+
+    @BeforeEach
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(3);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentPagesKeepOffsetOrder() throws Exception {
+        final BlackDuckRestConnection restConnection = Mockito.mock(BlackDuckRestConnection.class);
+        Mockito.when(restConnection.executeRequest(Mockito.any(Request.class))).thenAnswer(invocation -> {
+            final int offset = getOffset(invocation.getArgument(0));
+            // the later pages come back first
+            Thread.sleep((TOTAL_COUNT - offset) * 5);
+            return createPage(offset);
+        });
+
+        final List<ProjectView> projects = createTransformer(restConnection).getResponses(createPagedRequest(), ProjectView.class);
+
+        assertEquals(TOTAL_COUNT, projects.size());
+        for (int i = 0; i < TOTAL_COUNT; i++) {
+            assertEquals("project" + i, projects.get(i).name);
+        }
+        Mockito.verify(restConnection, Mockito.times(5)).executeRequest(Mockito.any(Request.class));
+    }
+
+    @Test
+    public void testFailedPageIsThrownAndSlowPagesAreCancelled() throws Exception {
+        final CountDownLatch slowPageStarted = new CountDownLatch(1);
+        final AtomicBoolean slowPageInterrupted = new AtomicBoolean();
+        final BlackDuckRestConnection restConnection = Mockito.mock(BlackDuckRestConnection.class);
+        Mockito.when(restConnection.executeRequest(Mockito.any(Request.class))).thenAnswer(invocation -> {
+            final int offset = getOffset(invocation.getArgument(0));
+            if (2 == offset) {
+                slowPageStarted.await();
+                throw new HubIntegrationException("page failed");
+            } else if (4 == offset) {
+                slowPageStarted.countDown();
+                try {
+                    Thread.sleep(10000);
+                } catch (final InterruptedException e) {
+                    slowPageInterrupted.set(true);
+                    throw e;
+                }
+            }
+            return createPage(offset);
+        });
+
+        final IntegrationException e = assertThrows(IntegrationException.class, () -> createTransformer(restConnection).getResponses(createPagedRequest(), ProjectView.class));
+        assertEquals("page failed", e.getMessage());
+
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(slowPageInterrupted.get());
+    }
+
+    private HubResponsesTransformer createTransformer(final BlackDuckRestConnection restConnection) {
+        final HubResponseTransformer hubResponseTransformer = new HubResponseTransformer(restConnection, new Gson(), new BufferedIntLogger());
+        return new HubResponsesTransformer(restConnection, hubResponseTransformer, new BufferedIntLogger(), executorService, 2);
+    }
+
+    private PagedRequest createPagedRequest() {
+        return new PagedRequest(RequestFactory.createCommonGetRequestBuilder().uri("http://hub-server.com/api/projects"), 0, LIMIT);
+    }
+
+    private int getOffset(final Request request) {
+        return Integer.parseInt(request.getQueryParameters().get("offset").iterator().next());
+    }
+
+    private Response createPage(final int offset) throws IntegrationException {
+        final StringBuilder json = new StringBuilder("{\"totalCount\":" + TOTAL_COUNT + ",\"items\":[");
+        for (int i = offset; i < Math.min(TOTAL_COUNT, offset + LIMIT); i++) {
+            json.append(i == offset ? "" : ",").append("{\"name\":\"project").append(i).append("\"}");
+        }
+        json.append("]}");
+        final Response response = Mockito.mock(Response.class);
+        Mockito.when(response.getContent()).thenReturn(new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)));
+        return response;
+    }
+
+}
@@ -0,0 +1,150 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import com.synopsys.integration.blackduck.api.generated.view.ProjectView;
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.blackduck.exception.HubIntegrationRuntimeException;
+import com.synopsys.integration.blackduck.rest.BlackDuckRestConnection;
+import com.synopsys.integration.blackduck.service.model.RequestFactory;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.log.BufferedIntLogger;
+import com.synopsys.integration.rest.request.Request;
+import com.synopsys.integration.rest.request.Response;
+
+public class HubServiceTest {
+    private static final String PROJECTS_URI = "http://hub-server.com/api/projects";
+
+    @Test
+    public void testIteratorLoadsPagesLazily() throws Exception {
+        final BlackDuckRestConnection restConnection = mockPagedRestConnection(5, -1);
+        final HubService hubService = createHubService(restConnection);
+
+        final Iterator<ProjectView> projects = hubService.iterateResponses(createRequestBuilder(), ProjectView.class);
+        verifyRequestCount(restConnection, 1);
+
+        assertEquals("project0", projects.next().name);
+        assertEquals("project1", projects.next().name);
+        verifyRequestCount(restConnection, 1);
+
+        assertTrue(projects.hasNext());
+        verifyRequestCount(restConnection, 2);
+        assertEquals("project2", projects.next().name);
+        assertEquals("project3", projects.next().name);
+        assertEquals("project4", projects.next().name);
+        assertFalse(projects.hasNext());
+        verifyRequestCount(restConnection, 3);
+    }
+
+    @Test
+    public void testStreamKeepsOrderAndOnlyLoadsWhatIsConsumed() throws Exception {
+        final BlackDuckRestConnection restConnection = mockPagedRestConnection(5, -1);
+        final HubService hubService = createHubService(restConnection);
+
+        final List<String> names = hubService.streamResponses(createRequestBuilder(), ProjectView.class).map(projectView -> projectView.name).collect(Collectors.toList());
+        assertEquals(Arrays.asList("project0", "project1", "project2", "project3", "project4"), names);
+        verifyRequestCount(restConnection, 3);
+
+        final BlackDuckRestConnection limitedRestConnection = mockPagedRestConnection(5, -1);
+        final List<String> firstNames = createHubService(limitedRestConnection).streamResponses(createRequestBuilder(), ProjectView.class).limit(2).map(projectView -> projectView.name).collect(Collectors.toList());
+        assertEquals(Arrays.asList("project0", "project1"), firstNames);
+        verifyRequestCount(limitedRestConnection, 1);
+    }
+
+    @Test
+    public void testEmptyCollection() throws Exception {
+        final BlackDuckRestConnection restConnection = mockPagedRestConnection(0, -1);
+        final HubService hubService = createHubService(restConnection);
+
+        final Iterator<ProjectView> projects = hubService.iterateResponses(createRequestBuilder(), ProjectView.class);
+        assertFalse(projects.hasNext());
+        assertEquals(0, hubService.streamResponses(createRequestBuilder(), ProjectView.class).count());
+        verifyRequestCount(restConnection, 2);
+    }
+
+    @Test
+    public void testFailedPageIsThrownFromTheIterator() throws Exception {
+        final BlackDuckRestConnection restConnection = mockPagedRestConnection(5, 2);
+        final HubService hubService = createHubService(restConnection);
+
+        final Iterator<ProjectView> projects = hubService.iterateResponses(createRequestBuilder(), ProjectView.class);
+        assertEquals("project0", projects.next().name);
+        assertEquals("project1", projects.next().name);
+
+        final HubIntegrationRuntimeException e = assertThrows(HubIntegrationRuntimeException.class, projects::hasNext);
+        assertTrue(e.getCause() instanceof HubIntegrationException);
+        assertEquals("page 2 failed", e.getCause().getMessage());
+
+        assertThrows(HubIntegrationRuntimeException.class, () -> hubService.streamResponses(createRequestBuilder(), ProjectView.class).count());
+    }
+
+    private HubService createHubService(final BlackDuckRestConnection restConnection) {
+        return new HubService(new BufferedIntLogger(), restConnection, new Gson(), new JsonParser());
+    }
+
+    private Request.Builder createRequestBuilder() {
+        return RequestFactory.createCommonGetRequestBuilder(PROJECTS_URI, 2, 0);
+    }
+
+    private void verifyRequestCount(final BlackDuckRestConnection restConnection, final int count) throws IntegrationException {
+        Mockito.verify(restConnection, Mockito.times(count)).executeRequest(Mockito.any(Request.class));
+    }
+
+    private BlackDuckRestConnection mockPagedRestConnection(final int totalCount, final int failingOffset) throws IntegrationException {
+        final BlackDuckRestConnection restConnection = Mockito.mock(BlackDuckRestConnection.class);
+        Mockito.when(restConnection.executeRequest(Mockito.any(Request.class))).thenAnswer(invocation -> {
+            final Request request = invocation.getArgument(0);
+            final int offset = Integer.parseInt(request.getQueryParameters().get("offset").iterator().next());
+            final int limit = Integer.parseInt(request.getQueryParameters().get("limit").iterator().next());
+            if (offset == failingOffset) {
+                throw new HubIntegrationException("page " + offset + " failed");
+            }
+
+            final StringBuilder json = new StringBuilder("{\"totalCount\":" + totalCount + ",\"items\":[");
+            for (int i = offset; i < Math.min(totalCount, offset + limit); i++) {
+                json.append(i == offset ? "" : ",").append("{\"name\":\"project").append(i).append("\"}");
+            }
+            json.append("]}");
+            final Response response = Mockito.mock(Response.class);
+            Mockito.when(response.getContent()).thenReturn(new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)));
+            return response;
+        });
+        return restConnection;
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+
+public class JsonItemsScannerTest {
+    @Test
+    public void testItemsAreReturnedVerbatim() throws Exception {
+        final String firstItem = "{\"name\":\"first, \\\"quoted\\\" {name}\",\"nested\":{\"list\":[1, 2, {\"a\":null}]},\"_meta\":{\"href\":\"http://hub-server.com/api/projects/1\"}}";
+        final String secondItem = "{ \"name\" : \"second ]\" , \"active\" : true }";
+        final String json = "{\"totalCount\": 57, \"appliedFilters\":[{\"name\":\"x\"}], \"items\" : [ " + firstItem + " ,\n" + secondItem + "\n], \"_meta\":{\"links\":[]}}";
+
+        final List<String> items = new ArrayList<>();
+        final int totalCount = new JsonItemsScanner(new StringReader(json)).scan((itemJson, type) -> items.add(itemJson));
+
+        assertEquals(57, totalCount);
+        assertEquals(2, items.size());
+        assertEquals(firstItem, items.get(0));
+        assertEquals(secondItem, items.get(1));
+    }
+
+    @Test
+    public void testItemTypes() throws Exception {
+        final String json = "{\"items\":[{\"content\":{\"type\":\"nested\"},\"type\" : \"RULE_VIOLATION\"},{\"type\":null},{\"name\":\"untyped\"}],\"totalCount\":3}";
+
+        final List<String> types = new ArrayList<>();
+        final List<String> items = new ArrayList<>();
+        new JsonItemsScanner(new StringReader(json)).scan((itemJson, type) -> {
+            items.add(itemJson);
+            types.add(type);
+        });
+
+        assertEquals(3, types.size());
+        assertEquals("RULE_VIOLATION", types.get(0));
+        assertNull(types.get(1));
+        assertNull(types.get(2));
+        assertEquals("{\"content\":{\"type\":\"nested\"},\"type\" : \"RULE_VIOLATION\"}", items.get(0));
+        assertEquals("{\"type\":null}", items.get(1));
+    }
+
+    @Test
+    public void testEscapedItemType() throws Exception {
+        final String item = "{\"type\":\"RULE_\\u0056IOLATION \\\"escaped\\\"\"}";
+
+        final List<String> types = new ArrayList<>();
+        final List<String> items = new ArrayList<>();
+        new JsonItemsScanner(new StringReader("{\"items\":[" + item + "]}")).scan((itemJson, type) -> {
+            items.add(itemJson);
+            types.add(type);
+        });
+
+        assertEquals("RULE_VIOLATION \"escaped\"", types.get(0));
+        assertEquals(item, items.get(0));
+    }
+
+    @Test
+    public void testScalarItemsAndMissingTotalCount() throws Exception {
+        final List<String> items = new ArrayList<>();
+        final int totalCount = new JsonItemsScanner(new StringReader("{\"items\":[1,\"two\",null,-4.5e3]}")).scan((itemJson, type) -> items.add(itemJson));
+
+        assertEquals(-1, totalCount);
+        assertEquals(4, items.size());
+        assertEquals("1", items.get(0));
+        assertEquals("\"two\"", items.get(1));
+        assertEquals("null", items.get(2));
+        assertEquals("-4.5e3", items.get(3));
+    }
+
+    @Test
+    public void testEmptyEnvelopes() throws Exception {
+        final List<String> items = new ArrayList<>();
+        assertEquals(-1, new JsonItemsScanner(new StringReader("{}")).scan((itemJson, type) -> items.add(itemJson)));
+        assertEquals(0, new JsonItemsScanner(new StringReader("{\"totalCount\":0,\"items\":[]}")).scan((itemJson, type) -> items.add(itemJson)));
+        assertTrue(items.isEmpty());
+    }
+
+    @Test
+    public void testLargeItemsSpanningTheBuffer() throws Exception {
+        final StringBuilder longName = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            longName.append((char) ('a' + i % 26));
+        }
+        final String item = "{\"name\":\"" + longName + "\"}";
+
+        final List<String> items = new ArrayList<>();
+        new JsonItemsScanner(new StringReader("{\"items\":[" + item + "," + item + "],\"totalCount\":2}")).scan((itemJson, type) -> items.add(itemJson));
+
+        assertEquals(2, items.size());
+        assertEquals(item, items.get(1));
+    }
+
+    @Test
+    public void testTruncatedContent() {
+        assertThrows(HubIntegrationException.class, () -> new JsonItemsScanner(new StringReader("{\"totalCount\":2,\"items\":[{\"name\":\"trunc")).scan((itemJson, type) -> {
+        }));
+        assertThrows(HubIntegrationException.class, () -> new JsonItemsScanner(new StringReader("[]")).scan((itemJson, type) -> {
+        }));
+    }
+
+}
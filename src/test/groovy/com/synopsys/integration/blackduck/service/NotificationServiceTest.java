@@ -0,0 +1,176 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.synopsys.integration.blackduck.api.core.ResourceMetadata;
+import com.synopsys.integration.blackduck.api.generated.discovery.ApiDiscovery;
+import com.synopsys.integration.blackduck.api.generated.view.NotificationView;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.log.BufferedIntLogger;
+import com.synopsys.integration.rest.RestConstants;
+import com.synopsys.integration.rest.request.Request;
+
+public class NotificationServiceTest {
+    private static final List<Long> NOTIFICATION_TIMES = Arrays.asList(1000L, 900L, 500L, 400L, 250L, 100L);
+
+    @Test
+    public void testWindowsAreHalvedAndBoundariesDeduplicated() throws Exception {
+        final HubService hubService = mockHubService(NOTIFICATION_TIMES, null);
+        final List<NotificationView> notifications = new NotificationService(hubService, new BufferedIntLogger()).getAllNotificationsByWindow(new Date(0), new Date(1000), 2);
+
+        // [0,1000] -> [0,500] + [500,1000] -> [0,250] + [250,375] + [375,500] + [500,750] + [750,1000], so 500 and 250 are each returned by two windows
+        assertEquals(NOTIFICATION_TIMES, getTimes(notifications));
+        Mockito.verify(hubService, Mockito.times(5)).getResponses(Mockito.eq(ApiDiscovery.NOTIFICATIONS_LINK_RESPONSE), Mockito.any(Request.Builder.class), Mockito.eq(true));
+    }
+
+    @Test
+    public void testConcurrentWindowsKeepTheirOrder() throws Exception {
+        final ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            final HubService hubService = mockHubService(NOTIFICATION_TIMES, null);
+            final List<NotificationView> notifications = new NotificationService(hubService, new BufferedIntLogger(), executorService, 3).getAllNotificationsByWindow(new Date(0), new Date(1000), 2);
+            assertEquals(NOTIFICATION_TIMES, getTimes(notifications));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMissingTotalCountIsNotSplit() throws Exception {
+        final HubService hubService = mockHubService(NOTIFICATION_TIMES, -1);
+        final List<NotificationView> notifications = new NotificationService(hubService, new BufferedIntLogger()).getAllNotificationsByWindow(new Date(0), new Date(1000), 2);
+
+        assertEquals(NOTIFICATION_TIMES, getTimes(notifications));
+        Mockito.verify(hubService, Mockito.times(1)).getTotalCount(Mockito.eq(ApiDiscovery.NOTIFICATIONS_LINK_RESPONSE), Mockito.any(Request.Builder.class));
+        Mockito.verify(hubService, Mockito.times(1)).getResponses(Mockito.eq(ApiDiscovery.NOTIFICATIONS_LINK_RESPONSE), Mockito.any(Request.Builder.class), Mockito.eq(true));
+    }
+
+    @Test
+    public void testEmptyWindowsAreNotRetrieved() throws Exception {
+        final HubService hubService = mockHubService(Collections.emptyList(), null);
+        assertTrue(new NotificationService(hubService, new BufferedIntLogger()).getAllNotificationsByWindow(new Date(0), new Date(1000), 2).isEmpty());
+        Mockito.verify(hubService, Mockito.never()).getResponses(Mockito.eq(ApiDiscovery.NOTIFICATIONS_LINK_RESPONSE), Mockito.any(Request.Builder.class), Mockito.anyBoolean());
+
+        // the empty halves [0,500] and [500,750] are dropped, leaving [750,875] and [875,1000]
+        final HubService newestOnlyHubService = mockHubService(Arrays.asList(1000L, 900L, 800L), null);
+        final List<NotificationView> notifications = new NotificationService(newestOnlyHubService, new BufferedIntLogger()).getAllNotificationsByWindow(new Date(0), new Date(1000), 2);
+        assertEquals(Arrays.asList(1000L, 900L, 800L), getTimes(notifications));
+        Mockito.verify(newestOnlyHubService, Mockito.times(2)).getResponses(Mockito.eq(ApiDiscovery.NOTIFICATIONS_LINK_RESPONSE), Mockito.any(Request.Builder.class), Mockito.eq(true));
+    }
+
+    @Test
+    public void testConcurrentRequestsAreCapped() throws Exception {
+        final List<Long> notificationTimes = new ArrayList<>();
+        for (long time = 400; time > 0; time -= 10) {
+            notificationTimes.add(time);
+        }
+        final HubService hubService = Mockito.mock(HubService.class);
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        Mockito.when(hubService.getTotalCount(Mockito.eq(ApiDiscovery.NOTIFICATIONS_LINK_RESPONSE), Mockito.any(Request.Builder.class))).thenAnswer(invocation -> {
+            trackInFlight(inFlight, maxInFlight);
+            return getNotificationsInWindow(notificationTimes, invocation.getArgument(1)).size();
+        });
+        Mockito.when(hubService.getResponses(Mockito.eq(ApiDiscovery.NOTIFICATIONS_LINK_RESPONSE), Mockito.any(Request.Builder.class), Mockito.eq(true))).thenAnswer(invocation -> {
+            trackInFlight(inFlight, maxInFlight);
+            return getNotificationsInWindow(notificationTimes, invocation.getArgument(1));
+        });
+
+        final ExecutorService executorService = Executors.newCachedThreadPool();
+        try {
+            final List<NotificationView> notifications = new NotificationService(hubService, new BufferedIntLogger(), executorService, 2).getAllNotificationsByWindow(new Date(0), new Date(1000), 1);
+            assertEquals(notificationTimes, getTimes(notifications));
+            assertTrue(maxInFlight.get() <= 2, "Expected at most 2 requests at a time but there were " + maxInFlight.get());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void trackInFlight(final AtomicInteger inFlight, final AtomicInteger maxInFlight) throws InterruptedException {
+        final int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        Thread.sleep(2);
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Serves the notifications created at the given times, newest first, treating both ends of a window as inclusive just like the Hub. A non-null fixedTotalCount replaces every count probe.
+     */
+    private HubService mockHubService(final List<Long> notificationTimes, final Integer fixedTotalCount) throws IntegrationException {
+        final HubService hubService = Mockito.mock(HubService.class);
+        Mockito.when(hubService.getTotalCount(Mockito.eq(ApiDiscovery.NOTIFICATIONS_LINK_RESPONSE), Mockito.any(Request.Builder.class))).thenAnswer(invocation -> {
+            if (null != fixedTotalCount) {
+                return fixedTotalCount;
+            }
+            return getNotificationsInWindow(notificationTimes, invocation.getArgument(1)).size();
+        });
+        Mockito.when(hubService.getResponses(Mockito.eq(ApiDiscovery.NOTIFICATIONS_LINK_RESPONSE), Mockito.any(Request.Builder.class), Mockito.eq(true))).thenAnswer(invocation -> getNotificationsInWindow(notificationTimes, invocation.getArgument(1)));
+        return hubService;
+    }
+
+    private List<NotificationView> getNotificationsInWindow(final List<Long> notificationTimes, final Request.Builder requestBuilder) throws ParseException {
+        final long startTime = parseDate(requestBuilder, "startDate");
+        final long endTime = parseDate(requestBuilder, "endDate");
+        final List<NotificationView> notifications = new ArrayList<>();
+        for (final Long time : notificationTimes) {
+            if (time >= startTime && time <= endTime) {
+                final NotificationView notificationView = new NotificationView();
+                notificationView.createdAt = new Date(time);
+                notificationView._meta = new ResourceMetadata();
+                notificationView._meta.href = "http://hub-server.com/api/notifications/" + time;
+                notifications.add(notificationView);
+            }
+        }
+        return notifications;
+    }
+
+    private long parseDate(final Request.Builder requestBuilder, final String parameter) throws ParseException {
+        final SimpleDateFormat sdf = new SimpleDateFormat(RestConstants.JSON_DATE_FORMAT);
+        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return sdf.parse(requestBuilder.getQueryParameters().get(parameter).iterator().next()).getTime();
+    }
+
+    private List<Long> getTimes(final List<NotificationView> notifications) {
+        return notifications.stream().map(notification -> notification.createdAt.getTime()).collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,136 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.synopsys.integration.blackduck.api.generated.view.ComponentVersionView;
+import com.synopsys.integration.blackduck.api.generated.view.ProjectVersionView;
+import com.synopsys.integration.blackduck.api.generated.view.VersionBomComponentView;
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.blackduck.service.model.ComponentVersionVulnerabilities;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.log.BufferedIntLogger;
+
+public class ProjectServiceTest {
+    private static final List<String> BOM_COMPONENT_VERSIONS = Arrays.asList("http://hub-server.com/api/components/a/versions/1", "http://hub-server.com/api/components/b/versions/2", null,
+            "http://hub-server.com/api/components/a/versions/1", "http://hub-server.com/api/components/c/versions/3");
+
+    @Test
+    public void testVulnerabilitiesKeepBomOrderAndSharedVersionsAreRetrievedOnce() throws Exception {
+        final HubService hubService = mockHubService(null);
+        final ComponentService componentService = mockComponentService();
+        final ProjectService projectService = new ProjectService(hubService, new BufferedIntLogger(), null, null, componentService);
+
+        assertVulnerabilities(projectService.getComponentVersionVulnerabilities(new ProjectVersionView()));
+        verifyVersionsRetrievedOnce(hubService);
+    }
+
+    @Test
+    public void testConcurrentVulnerabilitiesKeepBomOrder() throws Exception {
+        final ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            final HubService hubService = mockHubService(null);
+            final ComponentService componentService = mockComponentService();
+            final ProjectService projectService = new ProjectService(hubService, new BufferedIntLogger(), null, null, componentService, executorService, 2);
+
+            assertVulnerabilities(projectService.getComponentVersionVulnerabilities(new ProjectVersionView()));
+            verifyVersionsRetrievedOnce(hubService);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailedComponentVersionIsThrown() throws Exception {
+        final ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            final HubService hubService = mockHubService(BOM_COMPONENT_VERSIONS.get(1));
+            final ProjectService projectService = new ProjectService(hubService, new BufferedIntLogger(), null, null, mockComponentService(), executorService, 2);
+
+            final IntegrationException e = assertThrows(IntegrationException.class, () -> projectService.getComponentVersionVulnerabilities(new ProjectVersionView()));
+            assertEquals("Could not get " + BOM_COMPONENT_VERSIONS.get(1), e.getMessage());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void assertVulnerabilities(final List<ComponentVersionVulnerabilities> vulnerabilities) {
+        final List<String> expectedVersionNames = BOM_COMPONENT_VERSIONS.stream().filter(url -> null != url).collect(Collectors.toList());
+        assertEquals(expectedVersionNames, vulnerabilities.stream().map(componentVersionVulnerabilities -> componentVersionVulnerabilities.getComponentVersionView().versionName).collect(Collectors.toList()));
+        // the BOM components sharing a component version share its vulnerabilities
+        assertSame(vulnerabilities.get(0), vulnerabilities.get(2));
+    }
+
+    private void verifyVersionsRetrievedOnce(final HubService hubService) throws IntegrationException {
+        for (final String componentVersionUrl : Arrays.asList(BOM_COMPONENT_VERSIONS.get(0), BOM_COMPONENT_VERSIONS.get(1), BOM_COMPONENT_VERSIONS.get(4))) {
+            Mockito.verify(hubService, Mockito.times(1)).getResponse(componentVersionUrl, ComponentVersionView.class);
+        }
+    }
+
+    /**
+     * The earlier component versions of the BOM take the longest to retrieve, so concurrent retrievals complete out of order.
+     */
+    private HubService mockHubService(final String failingComponentVersionUrl) throws IntegrationException {
+        final List<VersionBomComponentView> versionBomComponentViews = new ArrayList<>();
+        for (final String componentVersionUrl : BOM_COMPONENT_VERSIONS) {
+            final VersionBomComponentView versionBomComponentView = new VersionBomComponentView();
+            versionBomComponentView.componentVersion = componentVersionUrl;
+            versionBomComponentViews.add(versionBomComponentView);
+        }
+
+        final HubService hubService = Mockito.mock(HubService.class);
+        Mockito.when(hubService.getAllResponses(Mockito.any(ProjectVersionView.class), Mockito.eq(ProjectVersionView.COMPONENTS_LINK_RESPONSE))).thenReturn(versionBomComponentViews);
+        Mockito.when(hubService.getResponse(Mockito.anyString(), Mockito.eq(ComponentVersionView.class))).thenAnswer(invocation -> {
+            final String componentVersionUrl = invocation.getArgument(0);
+            Thread.sleep((BOM_COMPONENT_VERSIONS.size() - BOM_COMPONENT_VERSIONS.indexOf(componentVersionUrl)) * 10);
+            if (componentVersionUrl.equals(failingComponentVersionUrl)) {
+                throw new HubIntegrationException("Could not get " + componentVersionUrl);
+            }
+            final ComponentVersionView componentVersionView = new ComponentVersionView();
+            componentVersionView.versionName = componentVersionUrl;
+            return componentVersionView;
+        });
+        return hubService;
+    }
+
+    private ComponentService mockComponentService() throws IntegrationException {
+        final ComponentService componentService = Mockito.mock(ComponentService.class);
+        Mockito.when(componentService.getComponentVersionVulnerabilities(Mockito.any(ComponentVersionView.class)))
+                .thenAnswer(invocation -> new ComponentVersionVulnerabilities(invocation.getArgument(0), Collections.emptyList()));
+        return componentService;
+    }
+
+}
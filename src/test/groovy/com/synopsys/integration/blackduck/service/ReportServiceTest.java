@@ -0,0 +1,324 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.gson.JsonParser;
+import com.synopsys.integration.blackduck.api.generated.component.VersionBomLicenseView;
+import com.synopsys.integration.blackduck.api.generated.enumeration.PolicySummaryStatusType;
+import com.synopsys.integration.blackduck.api.generated.enumeration.ProjectVersionDistributionType;
+import com.synopsys.integration.blackduck.api.generated.enumeration.ProjectVersionPhaseType;
+import com.synopsys.integration.blackduck.api.generated.enumeration.ReportFormatType;
+import com.synopsys.integration.blackduck.api.generated.view.PolicyRuleViewV2;
+import com.synopsys.integration.blackduck.api.generated.view.ProjectVersionView;
+import com.synopsys.integration.blackduck.api.generated.view.ProjectView;
+import com.synopsys.integration.blackduck.api.generated.view.ReportView;
+import com.synopsys.integration.blackduck.api.generated.view.VersionBomComponentView;
+import com.synopsys.integration.blackduck.exception.HubIntegrationException;
+import com.synopsys.integration.blackduck.service.concurrent.BackoffPoller;
+import com.synopsys.integration.blackduck.service.model.BomComponent;
+import com.synopsys.integration.blackduck.service.model.NoticesReportResult;
+import com.synopsys.integration.blackduck.service.model.ProjectVersionWrapper;
+import com.synopsys.integration.log.BufferedIntLogger;
+import com.synopsys.integration.rest.request.Request;
+import com.synopsys.integration.rest.request.Response;
+import com.synopsys.integration.util.IntegrationEscapeUtil;
+
+public class ReportServiceTest {
+    private ScheduledExecutorService scheduler;
+    private ExecutorService pollerExecutorService;
+    private File outputDirectory;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "scheduler"));
+        pollerExecutorService = Executors.newFixedThreadPool(2);
+        outputDirectory = Files.createTempDirectory(null).toFile();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+        pollerExecutorService.shutdownNow();
+        FileUtils.deleteQuietly(outputDirectory);
+    }
+
+    @Test
+    public void testGenerateHubNoticesReportAsync() throws Exception {
+        final HubService hubService = Mockito.mock(HubService.class);
+        final ProjectVersionView version = mockNoticesReport(hubService, "1.0", "notices for 1.0");
+
+        final ReportService reportService = new ReportService(hubService, new BufferedIntLogger(), Mockito.mock(ProjectService.class), new IntegrationEscapeUtil());
+        final BackoffPoller backoffPoller = new BackoffPoller(scheduler, pollerExecutorService, 1, 10, 2.0, 0.0);
+
+        assertEquals("notices for 1.0", reportService.generateHubNoticesReportAsync(version, ReportFormatType.TEXT, backoffPoller).get());
+        Mockito.verify(hubService, Mockito.times(2)).getResponse("http://hub-server.com/api/reports/1.0", ReportView.class);
+    }
+
+    @Test
+    public void testCreateNoticesReportFiles() throws Exception {
+        final HubService hubService = Mockito.mock(HubService.class);
+        final ProjectVersionView firstVersion = mockNoticesReport(hubService, "1.0", "notices for 1.0");
+        final ProjectVersionView failingVersion = mockNoticesReport(hubService, "2.0", "notices for 2.0");
+        final ProjectVersionView lastVersion = mockNoticesReport(hubService, "3.0", "notices for 3.0");
+        Mockito.when(hubService.getResponse("http://hub-server.com/api/reports/2.0", ReportView.class)).thenThrow(new HubIntegrationException("report failed"));
+
+        final ProjectView project = new ProjectView();
+        project.name = "project";
+        final List<ProjectVersionWrapper> versions = Arrays.asList(new ProjectVersionWrapper(project, firstVersion), new ProjectVersionWrapper(project, failingVersion), new ProjectVersionWrapper(project, lastVersion));
+
+        final ReportService reportService = new ReportService(hubService, new BufferedIntLogger(), Mockito.mock(ProjectService.class), new IntegrationEscapeUtil());
+        final BackoffPoller backoffPoller = new BackoffPoller(scheduler, pollerExecutorService, 1, 10, 2.0, 0.0);
+        final List<NoticesReportResult> results = reportService.createNoticesReportFiles(outputDirectory, versions, ReportFormatType.TEXT, backoffPoller, 2).get();
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("notices for 1.0", FileUtils.readFileToString(results.get(0).getNoticesReportFile().get(), StandardCharsets.UTF_8));
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("report failed", results.get(1).getException().get().getMessage());
+        assertSame(lastVersion, results.get(2).getProjectVersionWrapper().getProjectVersionView());
+        assertEquals("notices for 3.0", FileUtils.readFileToString(results.get(2).getNoticesReportFile().get(), StandardCharsets.UTF_8));
+        // only the reports that finished are cleaned up on the server
+        Mockito.verify(hubService, Mockito.times(2)).executeRequest(Mockito.any(Request.class));
+    }
+
+    @Test
+    public void testLargeBatchOfImmediateReportsDoesNotNest() throws Exception {
+        final HubService hubService = Mockito.mock(HubService.class);
+        Mockito.when(hubService.hasLink(Mockito.any(ProjectVersionView.class), Mockito.eq(ProjectVersionView.LICENSEREPORTS_LINK))).thenReturn(false);
+        final ProjectView project = new ProjectView();
+        project.name = "project";
+        final List<ProjectVersionWrapper> versions = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            final ProjectVersionView version = new ProjectVersionView();
+            version.versionName = "1." + i;
+            versions.add(new ProjectVersionWrapper(project, version));
+        }
+
+        // every report completes on the thread that starts it, as a report without the notice module needs no polling
+        final ReportService reportService = new ReportService(hubService, new BufferedIntLogger(), Mockito.mock(ProjectService.class), new IntegrationEscapeUtil());
+        final BackoffPoller backoffPoller = new BackoffPoller(scheduler, new CallingThreadExecutorService(), 1, 10, 2.0, 0.0);
+        final List<NoticesReportResult> results = reportService.createNoticesReportFiles(outputDirectory, versions, ReportFormatType.TEXT, backoffPoller, 1).get(60, TimeUnit.SECONDS);
+
+        assertEquals(20000, results.size());
+        assertTrue(results.stream().allMatch(result -> result.isSuccess() && !result.getNoticesReportFile().isPresent()));
+    }
+
+    @Test
+    public void testNoticesReportFileIsWrittenOffTheScheduler() throws Exception {
+        final HubService hubService = Mockito.mock(HubService.class);
+        final ProjectVersionView version = mockNoticesReport(hubService, "1.0", "notices for 1.0");
+        final Response contentResponse = hubService.executeGetRequest("http://hub-server.com/api/reports/1.0/contents");
+        final AtomicReference<String> downloadThreadName = new AtomicReference<>();
+        Mockito.when(hubService.executeGetRequest("http://hub-server.com/api/reports/1.0/contents")).thenAnswer(invocation -> {
+            downloadThreadName.set(Thread.currentThread().getName());
+            return contentResponse;
+        });
+
+        final ProjectView project = new ProjectView();
+        project.name = "project";
+        final ReportService reportService = new ReportService(hubService, new BufferedIntLogger(), Mockito.mock(ProjectService.class), new IntegrationEscapeUtil());
+        final BackoffPoller backoffPoller = new BackoffPoller(scheduler, pollerExecutorService, 1, 10, 2.0, 0.0);
+        final List<NoticesReportResult> results = reportService.createNoticesReportFiles(outputDirectory, Collections.singletonList(new ProjectVersionWrapper(project, version)), ReportFormatType.TEXT, backoffPoller, 1).get();
+
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("notices for 1.0", FileUtils.readFileToString(results.get(0).getNoticesReportFile().get(), StandardCharsets.UTF_8));
+        assertNotNull(downloadThreadName.get());
+        assertNotEquals("scheduler", downloadThreadName.get());
+    }
+
+    @Test
+    public void testConcurrentPolicyRulesKeepComponentOrder() throws Exception {
+        final HubService hubService = mockRiskReport(null);
+        final ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            final ReportService reportService = new ReportService(hubService, new BufferedIntLogger(), Mockito.mock(ProjectService.class), new IntegrationEscapeUtil(), 1000, executorService, 2);
+            final List<BomComponent> components = reportService.getRiskReportData(createProject(), createVersion()).getComponents();
+
+            assertEquals(6, components.size());
+            for (int i = 0; i < components.size(); i++) {
+                final BomComponent component = components.get(i);
+                assertEquals("component" + i, component.getComponentName());
+                if (i % 2 == 0) {
+                    assertEquals(PolicySummaryStatusType.IN_VIOLATION.toString(), component.getPolicyStatus());
+                    assertEquals(1, component.getPolicyRulesViolated().size());
+                    assertEquals("rule for component" + i, component.getPolicyRulesViolated().get(0).getName());
+                } else {
+                    assertEquals(PolicySummaryStatusType.NOT_IN_VIOLATION.toString(), component.getPolicyStatus());
+                    assertNull(component.getPolicyRulesViolated());
+                }
+            }
+            // only the components in violation have their rules requested
+            Mockito.verify(hubService, Mockito.times(3)).getAllResponses(Mockito.any(VersionBomComponentView.class), Mockito.eq(VersionBomComponentView.POLICY_RULES_LINK_RESPONSE));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentPolicyRuleFailureIsThrown() throws Exception {
+        final HubService hubService = mockRiskReport("component2");
+        final ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            final ReportService reportService = new ReportService(hubService, new BufferedIntLogger(), Mockito.mock(ProjectService.class), new IntegrationEscapeUtil(), 1000, executorService, 2);
+            final HubIntegrationException e = assertThrows(HubIntegrationException.class, () -> reportService.getRiskReportData(createProject(), createVersion()));
+            assertEquals("no rules for component2", e.getMessage());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Every other BOM component is in violation, and the earlier components take the longest to return their rules, so concurrent requests complete out of order.
+     */
+    private HubService mockRiskReport(final String failingComponentName) throws Exception {
+        final List<VersionBomComponentView> bomEntries = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            final VersionBomComponentView bomEntry = new VersionBomComponentView();
+            bomEntry.componentName = "component" + i;
+            bomEntry.approvalStatus = i % 2 == 0 ? PolicySummaryStatusType.IN_VIOLATION : PolicySummaryStatusType.NOT_IN_VIOLATION;
+            final VersionBomLicenseView license = new VersionBomLicenseView();
+            license.licenseDisplay = "Apache License 2.0";
+            bomEntry.licenses = Collections.singletonList(license);
+            bomEntries.add(bomEntry);
+        }
+
+        final HubService hubService = Mockito.mock(HubService.class);
+        Mockito.when(hubService.getHubBaseUrl()).thenReturn(new URL("http://hub-server.com"));
+        Mockito.when(hubService.getHref(Mockito.any())).thenReturn("http://hub-server.com/api/projects/1/versions/2");
+        Mockito.when(hubService.getAllResponses(Mockito.any(ProjectVersionView.class), Mockito.eq(ProjectVersionView.COMPONENTS_LINK_RESPONSE))).thenReturn(bomEntries);
+        Mockito.when(hubService.getAllResponses(Mockito.any(VersionBomComponentView.class), Mockito.eq(VersionBomComponentView.POLICY_RULES_LINK_RESPONSE))).thenAnswer(invocation -> {
+            final VersionBomComponentView bomEntry = invocation.getArgument(0);
+            Thread.sleep((6 - bomEntries.indexOf(bomEntry)) * 10);
+            if (bomEntry.componentName.equals(failingComponentName)) {
+                throw new HubIntegrationException("no rules for " + bomEntry.componentName);
+            }
+            final PolicyRuleViewV2 policyRuleView = new PolicyRuleViewV2();
+            policyRuleView.name = "rule for " + bomEntry.componentName;
+            return Collections.singletonList(policyRuleView);
+        });
+        return hubService;
+    }
+
+    private ProjectView createProject() {
+        final ProjectView project = new ProjectView();
+        project.name = "project";
+        return project;
+    }
+
+    private ProjectVersionView createVersion() {
+        final ProjectVersionView version = new ProjectVersionView();
+        version.versionName = "1.0";
+        version.phase = ProjectVersionPhaseType.DEVELOPMENT;
+        version.distribution = ProjectVersionDistributionType.INTERNAL;
+        return version;
+    }
+
+    private ProjectVersionView mockNoticesReport(final HubService hubService, final String versionName, final String noticesReport) throws Exception {
+        final ProjectVersionView version = new ProjectVersionView();
+        version.versionName = versionName;
+        final String reportUrl = "http://hub-server.com/api/reports/" + versionName;
+        final String contentUrl = reportUrl + "/contents";
+
+        Mockito.when(hubService.hasLink(version, ProjectVersionView.LICENSEREPORTS_LINK)).thenReturn(true);
+        Mockito.when(hubService.getFirstLink(version, ProjectVersionView.LICENSEREPORTS_LINK)).thenReturn("http://hub-server.com/api/versions/" + versionName + "/reports");
+        Mockito.when(hubService.convertToJson(Mockito.any())).thenReturn("{}");
+        Mockito.when(hubService.getJsonParser()).thenReturn(new JsonParser());
+        Mockito.when(hubService.executePostRequestAndRetrieveURL(Mockito.argThat((Request request) -> request != null && request.getUri().contains("/versions/" + versionName + "/")))).thenReturn(reportUrl);
+
+        final ReportView unfinishedReport = new ReportView();
+        final ReportView finishedReport = new ReportView();
+        finishedReport.finishedAt = new Date();
+        Mockito.when(hubService.getResponse(reportUrl, ReportView.class)).thenReturn(unfinishedReport, finishedReport);
+        Mockito.when(hubService.getFirstLink(finishedReport, ReportView.CONTENT_LINK)).thenReturn(contentUrl);
+
+        final Response contentResponse = Mockito.mock(Response.class);
+        final String contentJson = "{\"reportContent\":[{\"fileName\":\"notices.txt\",\"fileContent\":\"" + noticesReport + "\"}]}";
+        Mockito.when(contentResponse.getContent()).thenReturn(new ByteArrayInputStream(contentJson.getBytes(StandardCharsets.UTF_8)));
+        Mockito.when(contentResponse.getContentString()).thenReturn(contentJson);
+        Mockito.when(hubService.executeGetRequest(contentUrl)).thenReturn(contentResponse);
+        Mockito.when(hubService.executeRequest(Mockito.any(Request.class))).thenReturn(Mockito.mock(Response.class));
+        return version;
+    }
+
+    private static class CallingThreadExecutorService extends AbstractExecutorService {
+        private volatile boolean shutdown = false;
+
+        @Override
+        public void execute(final Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) {
+            return shutdown;
+        }
+    }
+
+}
@@ -0,0 +1,285 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.bucket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.gson.Gson;
+import com.synopsys.integration.blackduck.api.UriSingleResponse;
+import com.synopsys.integration.blackduck.api.core.HubResponse;
+import com.synopsys.integration.blackduck.api.generated.view.ComponentVersionView;
+import com.synopsys.integration.blackduck.api.generated.view.ProjectVersionView;
+import com.synopsys.integration.blackduck.service.HubService;
+import com.synopsys.integration.log.BufferedIntLogger;
+
+public class HubBucketTest {
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        final HubBucket hubBucket = new HubBucket.Builder().maxEntries(2).build();
+        hubBucket.addValid("one", new ProjectVersionView());
+        hubBucket.addValid("two", new ProjectVersionView());
+        assertNotNull(hubBucket.get("one", ProjectVersionView.class));
+        hubBucket.addValid("three", new ProjectVersionView());
+
+        assertEquals(2, hubBucket.size());
+        assertTrue(hubBucket.contains("one"));
+        assertFalse(hubBucket.contains("two"));
+        assertTrue(hubBucket.contains("three"));
+    }
+
+    @Test
+    public void testApproximateBytesLimit() {
+        final HubBucket hubBucket = new HubBucket.Builder().maxBytes(100).build();
+        final ProjectVersionView big = new ProjectVersionView();
+        big.json = "{\"name\":\"0123456789012345678901234567890123456789\"}";
+        hubBucket.addValid("one", big);
+        hubBucket.addValid("two", big);
+
+        assertFalse(hubBucket.contains("one"));
+        assertTrue(hubBucket.contains("two"));
+    }
+
+    @Test
+    public void testTimeToLive() {
+        final AtomicLong now = new AtomicLong(0);
+        final HubBucket hubBucket = new HubBucket.Builder()
+                                            .defaultTimeToLive(1, TimeUnit.HOURS)
+                                            .timeToLive(ProjectVersionView.class, 1, TimeUnit.MINUTES)
+                                            .errorTimeToLive(1, TimeUnit.SECONDS)
+                                            .clock(now::get)
+                                            .build();
+        hubBucket.addValid("version", new ProjectVersionView());
+        hubBucket.addValid("component", new ComponentVersionView());
+        hubBucket.addError("error", new Exception("could not get it"));
+        assertEquals(3, hubBucket.getAvailableUris().size());
+
+        now.set(TimeUnit.SECONDS.toMillis(1));
+        assertFalse(hubBucket.contains("error"));
+        assertTrue(hubBucket.contains("version"));
+
+        now.set(TimeUnit.MINUTES.toMillis(1));
+        assertNull(hubBucket.get("version", ProjectVersionView.class));
+        assertNotNull(hubBucket.get("component", ComponentVersionView.class));
+
+        now.set(TimeUnit.HOURS.toMillis(1));
+        assertTrue(hubBucket.getAvailableUris().isEmpty());
+    }
+
+    @Test
+    public void testSpillToDisk() throws Exception {
+        final File spillDirectory = Files.createTempDirectory(null).toFile();
+        try (final HubBucket hubBucket = new HubBucket.Builder().maxEntries(1).spillToDisk(spillDirectory, new Gson()).build()) {
+            for (int i = 0; i < 3; i++) {
+                final ProjectVersionView projectVersionView = new ProjectVersionView();
+                projectVersionView.json = "{\"versionName\":\"" + i + "\"}";
+                hubBucket.addValid("version" + i, projectVersionView);
+            }
+            hubBucket.addError("error", new Exception("could not get it"));
+
+            assertEquals(4, hubBucket.size());
+            assertEquals(1, spillDirectory.listFiles().length);
+            assertTrue(hubBucket.contains("version0"));
+            assertTrue(hubBucket.contains("error"));
+
+            // reading version0 back evicts the error, which is dropped rather than spilled
+            final ProjectVersionView rehydrated = hubBucket.get("version0", ProjectVersionView.class);
+            assertEquals("{\"versionName\":\"0\"}", rehydrated.json);
+            assertEquals(3, hubBucket.size());
+            assertFalse(hubBucket.contains("error"));
+            assertEquals("{\"versionName\":\"1\"}", hubBucket.get("version1", ProjectVersionView.class).json);
+            hubBucket.remove("version0");
+            assertFalse(hubBucket.contains("version0"));
+        }
+        assertEquals(0, spillDirectory.listFiles().length);
+        FileUtils.deleteQuietly(spillDirectory);
+    }
+
+    @Test
+    public void testGetAsyncSharesTheFill() throws Exception {
+        final HubBucket hubBucket = new HubBucket();
+        assertNull(hubBucket.getAsync("version").get());
+
+        assertTrue(hubBucket.startFilling("version"));
+        assertFalse(hubBucket.startFilling("version"));
+        final CompletableFuture<HubBucketItem<HubResponse>> first = hubBucket.getAsync("version");
+        final CompletableFuture<HubBucketItem<HubResponse>> second = hubBucket.getAsync("version");
+        assertFalse(first.isDone());
+
+        final ProjectVersionView projectVersionView = new ProjectVersionView();
+        hubBucket.addValid("version", projectVersionView);
+        assertSame(projectVersionView, first.get().getHubResponse().get());
+        assertSame(projectVersionView, second.get().getHubResponse().get());
+        assertFalse(hubBucket.startFilling("version"));
+    }
+
+    @Test
+    public void testDuplicateFillTasksFetchOnce() throws Exception {
+        final UriSingleResponse<ProjectVersionView> uriSingleResponse = new UriSingleResponse<>("version", ProjectVersionView.class);
+        final HubService hubService = Mockito.mock(HubService.class);
+        Mockito.when(hubService.getResponse(uriSingleResponse)).thenReturn(new ProjectVersionView());
+
+        final HubBucket hubBucket = new HubBucket();
+        new HubBucketFillTask(hubService, hubBucket, uriSingleResponse).run();
+        new HubBucketFillTask(hubService, hubBucket, uriSingleResponse).run();
+
+        Mockito.verify(hubService, Mockito.times(1)).getResponse(uriSingleResponse);
+        assertNotNull(hubBucket.get(uriSingleResponse));
+    }
+
+    @Test
+    public void testFillResultCompletesWithCounts() throws Exception {
+        final UriSingleResponse<ProjectVersionView> valid = new UriSingleResponse<>("valid", ProjectVersionView.class);
+        final UriSingleResponse<ProjectVersionView> invalid = new UriSingleResponse<>("invalid", ProjectVersionView.class);
+        final CountDownLatch release = new CountDownLatch(1);
+        final HubService hubService = Mockito.mock(HubService.class);
+        Mockito.when(hubService.getResponse(valid)).thenAnswer(invocation -> {
+            release.await();
+            return new ProjectVersionView();
+        });
+        Mockito.when(hubService.getResponse(invalid)).thenThrow(new IllegalStateException("not found"));
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            final HubBucketService hubBucketService = new HubBucketService(hubService, new BufferedIntLogger(), executorService);
+            final HubBucket hubBucket = new HubBucket();
+            final List<UriSingleResponse<? extends HubResponse>> uriSingleResponses = new ArrayList<>();
+            uriSingleResponses.add(valid);
+            uriSingleResponses.add(invalid);
+            uriSingleResponses.add(valid);
+
+            final HubBucketFillResult hubBucketFillResult = hubBucketService.addToTheBucket(hubBucket, uriSingleResponses);
+            assertEquals(2, hubBucketFillResult.getTotalCount());
+            assertFalse(hubBucketFillResult.isDone());
+
+            release.countDown();
+            assertSame(hubBucket, hubBucketFillResult.waitForCompletion(10, TimeUnit.SECONDS));
+            assertEquals(1, hubBucketFillResult.getValidCount());
+            assertEquals(1, hubBucketFillResult.getErrorCount());
+            assertEquals(0, hubBucketFillResult.getPendingCount());
+            Mockito.verify(hubService, Mockito.times(1)).getResponse(valid);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testErrorStillReleasesWaiters() throws Exception {
+        final UriSingleResponse<ProjectVersionView> uriSingleResponse = new UriSingleResponse<>("uri", ProjectVersionView.class);
+        final CountDownLatch release = new CountDownLatch(1);
+        final HubService hubService = Mockito.mock(HubService.class);
+        Mockito.when(hubService.getResponse(uriSingleResponse)).thenAnswer(invocation -> {
+            release.await();
+            throw new StackOverflowError("too deep");
+        });
+
+        final HubBucket hubBucket = new HubBucket();
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            final CompletableFuture<Void> taskFuture = CompletableFuture.runAsync(new HubBucketFillTask(hubService, hubBucket, uriSingleResponse), executorService);
+            while (hubBucket.getAsync(uriSingleResponse.uri).isDone()) {
+                Thread.sleep(10);
+            }
+            final CompletableFuture<HubBucketItem<HubResponse>> waiter = hubBucket.getAsync(uriSingleResponse.uri);
+
+            release.countDown();
+            final HubBucketItem<HubResponse> bucketItem = waiter.get(10, TimeUnit.SECONDS);
+            assertTrue(bucketItem.hasException());
+            assertTrue(bucketItem.getE().get().getCause() instanceof StackOverflowError);
+            assertThrows(ExecutionException.class, () -> taskFuture.get(10, TimeUnit.SECONDS));
+            assertFalse(hubBucket.startFilling(uriSingleResponse.uri));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFillResultCountsExpiredItemsAsMissing() throws Exception {
+        final AtomicLong now = new AtomicLong(0);
+        // every read of the clock moves it past the time to live, so nothing can be read back once it is added
+        final HubBucket hubBucket = new HubBucket.Builder().maxEntries(1).defaultTimeToLive(1, TimeUnit.MILLISECONDS).clock(now::incrementAndGet).build();
+        final HubService hubService = Mockito.mock(HubService.class);
+        Mockito.when(hubService.getResponse(Mockito.any(UriSingleResponse.class))).thenAnswer(invocation -> new ProjectVersionView());
+        final List<UriSingleResponse<? extends HubResponse>> uriSingleResponses = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            uriSingleResponses.add(new UriSingleResponse<>("uri" + i, ProjectVersionView.class));
+        }
+
+        final HubBucketFillResult hubBucketFillResult = new HubBucketService(hubService, new BufferedIntLogger()).addToTheBucket(hubBucket, uriSingleResponses);
+        assertTrue(hubBucketFillResult.isDone());
+        assertEquals(0, hubBucketFillResult.getValidCount());
+        assertEquals(0, hubBucketFillResult.getErrorCount());
+        assertEquals(3, hubBucketFillResult.getMissingCount());
+        assertEquals(0, hubBucketFillResult.getPendingCount());
+    }
+
+    @Test
+    public void testFillResultWithMoreUrisThanMaxEntries() throws Exception {
+        final HubBucket hubBucket = new HubBucket.Builder().maxEntries(2).build();
+        final HubService hubService = Mockito.mock(HubService.class);
+        Mockito.when(hubService.getResponse(Mockito.any(UriSingleResponse.class))).thenAnswer(invocation -> new ProjectVersionView());
+        final List<UriSingleResponse<? extends HubResponse>> uriSingleResponses = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            uriSingleResponses.add(new UriSingleResponse<>("uri" + i, ProjectVersionView.class));
+        }
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            final HubBucketFillResult hubBucketFillResult = new HubBucketService(hubService, new BufferedIntLogger(), executorService).addToTheBucket(hubBucket, uriSingleResponses);
+            hubBucketFillResult.waitForCompletion(10, TimeUnit.SECONDS);
+            // whatever was evicted by a concurrent fill before it was read back is missing, never valid
+            assertEquals(40, hubBucketFillResult.getValidCount() + hubBucketFillResult.getMissingCount());
+            assertEquals(0, hubBucketFillResult.getErrorCount());
+            assertEquals(0, hubBucketFillResult.getPendingCount());
+            assertEquals(2, hubBucket.size());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testUnboundedByDefault() {
+        final HubBucket hubBucket = new HubBucket();
+        for (int i = 0; i < 1000; i++) {
+            hubBucket.addValid("uri" + i, new ProjectVersionView());
+        }
+        assertEquals(1000, hubBucket.size());
+    }
+
+}
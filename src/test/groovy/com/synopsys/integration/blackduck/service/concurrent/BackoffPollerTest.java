@@ -0,0 +1,122 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Optional;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.synopsys.integration.blackduck.exception.HubTimeoutExceededException;
+
+public class BackoffPollerTest {
+    private ScheduledExecutorService scheduler;
+    private ExecutorService executorService;
+
+    @BeforeEach
+    public void createExecutors() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "scheduler"));
+        executorService = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    public void shutdownExecutors() {
+        scheduler.shutdownNow();
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testPollUntilValue() throws Exception {
+        final BackoffPoller backoffPoller = new BackoffPoller(scheduler, executorService, 1, 10, 2.0, 0.0);
+        final AtomicInteger attempts = new AtomicInteger();
+        final int value = backoffPoller.poll(() -> attempts.incrementAndGet() < 5 ? Optional.empty() : Optional.of(attempts.get()), 10000, "too slow").get();
+
+        assertEquals(5, value);
+        assertEquals(5, attempts.get());
+    }
+
+    @Test
+    public void testPollTimesOut() throws Exception {
+        final BackoffPoller backoffPoller = new BackoffPoller(scheduler, executorService, 1, 10, 2.0, 0.0);
+        try {
+            backoffPoller.poll(() -> Optional.empty(), 50, "too slow").get();
+            fail("Should have timed out");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof HubTimeoutExceededException);
+            assertEquals("too slow", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testPollFailure() throws Exception {
+        final BackoffPoller backoffPoller = new BackoffPoller(scheduler, executorService);
+        try {
+            backoffPoller.poll(() -> {
+                throw new IllegalStateException("failed");
+            }, 10000, "too slow").get();
+            fail("Should have failed");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testWorkRunsOffTheScheduler() throws Exception {
+        final BackoffPoller backoffPoller = new BackoffPoller(scheduler, executorService, 1, 10, 2.0, 0.0);
+        final List<String> threadNames = new CopyOnWriteArrayList<>();
+        final AtomicInteger attempts = new AtomicInteger();
+        backoffPoller.submit(() -> threadNames.add(Thread.currentThread().getName())).get();
+        backoffPoller.poll(() -> {
+            threadNames.add(Thread.currentThread().getName());
+            return attempts.incrementAndGet() < 3 ? Optional.empty() : Optional.of(attempts.get());
+        }, 10000, "too slow").get();
+
+        assertEquals(4, threadNames.size());
+        assertFalse(threadNames.contains("scheduler"), "Work ran on the scheduler: " + threadNames);
+    }
+
+    @Test
+    public void testDelayBackoff() {
+        final BackoffPoller backoffPoller = new BackoffPoller(scheduler, executorService, 100, 1000, 2.0, 0.2);
+        for (int i = 0; i < 20; i++) {
+            final long firstDelay = backoffPoller.getDelay(1);
+            assertTrue(firstDelay >= 80 && firstDelay <= 120, "Unexpected first delay " + firstDelay);
+            final long thirdDelay = backoffPoller.getDelay(3);
+            assertTrue(thirdDelay >= 320 && thirdDelay <= 480, "Unexpected third delay " + thirdDelay);
+            final long cappedDelay = backoffPoller.getDelay(30);
+            assertTrue(cappedDelay >= 800 && cappedDelay <= 1200, "Unexpected capped delay " + cappedDelay);
+        }
+    }
+
+}
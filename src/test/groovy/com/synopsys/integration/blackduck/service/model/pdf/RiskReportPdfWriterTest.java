@@ -0,0 +1,173 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.model.pdf;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import com.synopsys.integration.blackduck.service.model.BomComponent;
+import com.synopsys.integration.blackduck.service.model.ReportData;
+import com.synopsys.integration.log.BufferedIntLogger;
+import com.synopsys.integration.log.IntLogger;
+
+public class RiskReportPdfWriterTest {
+    private static final Pattern LIMITED_PATTERN = Pattern.compile("The risk report was limited to (\\d+) BOM Entries, (\\d+) more are not shown.");
+
+    @Test
+    public void testStreamedReportIsLimited() throws Exception {
+        final List<BomComponent> components = new ArrayList<>();
+        final ReportData reportData = new ReportData();
+        reportData.setProjectName("Project");
+        reportData.setProjectVersion("1.0");
+        reportData.setPhase("DEVELOPMENT");
+        reportData.setDistribution("EXTERNAL");
+        reportData.setComponents(new ArrayList<>());
+        for (int i = 0; i < 500; i++) {
+            final BomComponent component = new BomComponent();
+            component.setComponentName("component " + i);
+            component.setComponentVersion("1." + i);
+            components.add(component);
+            reportData.countComponent(component);
+        }
+
+        final File outputDirectory = Files.createTempDirectory(null).toFile();
+        try {
+            final RiskReportPdfWriter writer = new RiskReportPdfWriter(new BufferedIntLogger());
+            final File unlimitedPdf = writer.createPDFReportFile(outputDirectory, reportData, components.iterator());
+            final int unlimitedPages = countPages(unlimitedPdf);
+
+            final File limitedPdf = writer.createPDFReportFile(outputDirectory, reportData, components.iterator(), MemoryUsageSetting.setupTempFileOnly(), 10, RiskReportPdfWriter.NO_LIMIT);
+            assertEquals(1, countPages(limitedPdf));
+
+            final File pageLimitedPdf = writer.createPDFReportFile(outputDirectory, reportData, components.iterator(), MemoryUsageSetting.setupTempFileOnly(), RiskReportPdfWriter.NO_LIMIT, 2);
+            final int pageLimitedPages = countPages(pageLimitedPdf);
+            assertTrue(unlimitedPages > 3, "Expected the unlimited report to need more than 3 pages but it had " + unlimitedPages);
+            assertEquals(2, pageLimitedPages);
+        } finally {
+            FileUtils.deleteQuietly(outputDirectory);
+        }
+    }
+
+    private int countPages(final File pdfFile) throws Exception {
+        try (PDDocument document = PDDocument.load(pdfFile)) {
+            return document.getNumberOfPages();
+        }
+    }
+
+    @Test
+    public void testPageLimitFillsTheLastPage() throws Exception {
+        final List<BomComponent> components = new ArrayList<>();
+        final ReportData reportData = createReportData(components, 0, 500);
+
+        final File outputDirectory = Files.createTempDirectory(null).toFile();
+        try {
+            final int[] onePage = writeLimitedReport(outputDirectory, reportData, components, RiskReportPdfWriter.NO_LIMIT, 1);
+            final int[] twoPages = writeLimitedReport(outputDirectory, reportData, components, RiskReportPdfWriter.NO_LIMIT, 2);
+            final int[] threePages = writeLimitedReport(outputDirectory, reportData, components, RiskReportPdfWriter.NO_LIMIT, 3);
+
+            assertTrue(onePage[0] > 1, "Expected the first page to hold several rows but it had " + onePage[0]);
+            // the second and third pages hold nothing but rows, so each is filled with the same number of them
+            final int rowsPerPage = twoPages[0] - onePage[0];
+            assertTrue(rowsPerPage > 1, "Expected a full page of rows but the page had " + rowsPerPage);
+            assertEquals(rowsPerPage, threePages[0] - twoPages[0]);
+            assertEquals(500, onePage[0] + onePage[1]);
+            assertEquals(500, threePages[0] + threePages[1]);
+        } finally {
+            FileUtils.deleteQuietly(outputDirectory);
+        }
+    }
+
+    @Test
+    public void testSkippedComponentsAreNotCountedAsOmitted() throws Exception {
+        final List<BomComponent> components = new ArrayList<>();
+        final ReportData reportData = createReportData(components, 10, 490);
+
+        final File outputDirectory = Files.createTempDirectory(null).toFile();
+        try {
+            final int[] limited = writeLimitedReport(outputDirectory, reportData, components, 10, RiskReportPdfWriter.NO_LIMIT);
+            assertEquals(10, limited[0]);
+            assertEquals(480, limited[1]);
+        } finally {
+            FileUtils.deleteQuietly(outputDirectory);
+        }
+    }
+
+    private ReportData createReportData(final List<BomComponent> components, final int nullComponents, final int namedComponents) {
+        final ReportData reportData = new ReportData();
+        reportData.setProjectName("Project");
+        reportData.setProjectVersion("1.0");
+        reportData.setPhase("DEVELOPMENT");
+        reportData.setDistribution("EXTERNAL");
+        reportData.setComponents(new ArrayList<>());
+        for (int i = 0; i < nullComponents; i++) {
+            components.add(null);
+            reportData.countComponent(null);
+        }
+        for (int i = 0; i < namedComponents; i++) {
+            final BomComponent component = new BomComponent();
+            component.setComponentName("component " + i);
+            component.setComponentVersion("1." + i);
+            components.add(component);
+            reportData.countComponent(component);
+        }
+        return reportData;
+    }
+
+    /**
+     * @return The number of component rows written and the number of components reported as not shown.
+     */
+    private int[] writeLimitedReport(final File outputDirectory, final ReportData reportData, final List<BomComponent> components, final int maxComponentRows, final int maxPages) throws Exception {
+        final IntLogger logger = Mockito.mock(IntLogger.class);
+        final RiskReportPdfWriter writer = new RiskReportPdfWriter(logger);
+        final File pdfFile = writer.createPDFReportFile(outputDirectory, reportData, components.iterator(), MemoryUsageSetting.setupTempFileOnly(), maxComponentRows, maxPages);
+        if (RiskReportPdfWriter.NO_LIMIT != maxPages) {
+            assertEquals(maxPages, countPages(pdfFile));
+        }
+
+        final ArgumentCaptor<String> messages = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(logger, Mockito.atLeastOnce()).debug(messages.capture());
+        for (final String message : messages.getAllValues()) {
+            final Matcher matcher = LIMITED_PATTERN.matcher(message);
+            if (matcher.matches()) {
+                return new int[] { Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)) };
+            }
+        }
+        fail("The report was not limited");
+        return null;
+    }
+
+}
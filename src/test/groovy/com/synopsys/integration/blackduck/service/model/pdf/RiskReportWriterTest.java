@@ -0,0 +1,92 @@
+/**
+ * hub-common
+ *
+ * Copyright (C) 2018 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.service.model.pdf;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.synopsys.integration.blackduck.service.model.BomComponent;
+import com.synopsys.integration.blackduck.service.model.ReportData;
+
+public class RiskReportWriterTest {
+    @Test
+    public void testStreamedReportMatchesReport() throws Exception {
+        final List<BomComponent> components = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            final BomComponent component = new BomComponent();
+            component.setComponentName("component " + i);
+            if (i % 3 == 0) {
+                component.setSecurityRiskHighCount(1);
+            } else if (i % 3 == 1) {
+                component.setLicenseRiskMediumCount(2);
+            }
+            components.add(component);
+        }
+
+        final File reportDirectory = Files.createTempDirectory(null).toFile();
+        final File streamedReportDirectory = Files.createTempDirectory(null).toFile();
+        try {
+            final ReportData reportData = createReportData();
+            reportData.setComponents(components);
+            new RiskReportWriter().createHtmlReportFiles(new Gson(), reportDirectory, reportData);
+
+            final ReportData streamedReportData = createReportData();
+            new RiskReportWriter().createHtmlReportFiles(new Gson(), streamedReportDirectory, streamedReportData, components.iterator());
+
+            assertEquals(reportData.getTotalComponents(), streamedReportData.getTotalComponents());
+            assertEquals(reportData.getVulnerabilityRiskHighCount(), streamedReportData.getVulnerabilityRiskHighCount());
+            assertEquals(reportData.getLicenseRiskMediumCount(), streamedReportData.getLicenseRiskMediumCount());
+            assertEquals(reportData.getOperationalRiskNoneCount(), streamedReportData.getOperationalRiskNoneCount());
+
+            final String html = FileUtils.readFileToString(new File(reportDirectory, RiskReportResourceCopier.RISK_REPORT_HTML_FILE_NAME), StandardCharsets.UTF_8);
+            final String streamedHtml = FileUtils.readFileToString(new File(streamedReportDirectory, RiskReportResourceCopier.RISK_REPORT_HTML_FILE_NAME), StandardCharsets.UTF_8);
+            assertFalse(streamedHtml.contains(RiskReportResourceCopier.JSON_TOKEN_TO_REPLACE));
+            assertTrue(streamedHtml.contains("component 49"));
+            // the same json is written, only the order of the report fields differs
+            assertEquals(html.length(), streamedHtml.length());
+        } finally {
+            FileUtils.deleteQuietly(reportDirectory);
+            FileUtils.deleteQuietly(streamedReportDirectory);
+        }
+    }
+
+    private ReportData createReportData() {
+        final ReportData reportData = new ReportData();
+        reportData.setProjectName("Project");
+        reportData.setProjectVersion("1.0");
+        reportData.setPhase("DEVELOPMENT");
+        reportData.setDistribution("EXTERNAL");
+        return reportData;
+    }
+
+}